@@ -35,16 +35,28 @@ android {
     }
     buildFeatures {
         mlModelBinding = true
+        // BuildConfig.DEBUG keeps the pipeline stats overlay out of release builds
+        buildConfig = true
     }
     packaging {
         resources {
             excludes += "tflite"
         }
     }
+    testOptions {
+        // Robolectric tests such as ReadSearchTest run against the merged manifest and resources
+        unitTests.isIncludeAndroidResources = true
+        unitTests.all {
+            // Recorded frame sequences for ReplayBenchmarkTest, e.g. -PreplayDir=/path/to/recordings
+            it.systemProperty("replay.dir", project.findProperty("replayDir") ?: "")
+            project.findProperty("replayReport")?.let { report -> it.systemProperty("replay.report", report) }
+        }
+    }
 }
 
 dependencies {
 
+    implementation(project(":core"))
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
@@ -53,9 +65,16 @@ dependencies {
     implementation(libs.tensorflow.lite.metadata)
     implementation(libs.exifinterface)
     testImplementation(libs.junit)
+    testImplementation(libs.mockwebserver)
+    testImplementation(libs.robolectric)
+    testImplementation(libs.test.core)
+    testImplementation(testFixtures(project(":core")))
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
+    androidTestImplementation(testFixtures(project(":core")))
     implementation("androidx.swiperefreshlayout:swiperefreshlayout:1.2.0-alpha01")
+    // ListAdapter commit callbacks and getBindingAdapterPosition
+    implementation("androidx.recyclerview:recyclerview:1.3.2")
 
     implementation("androidx.camera:camera-core:1.4.0")
     implementation("androidx.camera:camera-camera2:1.4.0")
@@ -73,8 +92,16 @@ dependencies {
     implementation ("com.google.code.gson:gson:2.11.0")
     implementation("androidx.room:room-runtime:2.6.1")
     annotationProcessor("androidx.room:room-compiler:2.6.1")
+    // DAO queries returning a PagingSource, for the building list
+    implementation(libs.room.paging)
+    implementation(libs.paging.runtime)
     implementation ("androidx.lifecycle:lifecycle-viewmodel:2.6.1")
+    // viewModelScope, which caches the paged building list across rotations
+    implementation ("androidx.lifecycle:lifecycle-viewmodel-ktx:2.6.1")
     implementation ("androidx.lifecycle:lifecycle-livedata:2.6.1")
+    implementation ("androidx.work:work-runtime:2.9.1")
     implementation ("com.squareup.retrofit2:retrofit:2.9.0")
     implementation ("com.squareup.retrofit2:converter-gson:2.5.0")
+    // Retrofit's own version, declared because HttpStack configures the client directly
+    implementation(libs.okhttp)
 }
\ No newline at end of file
@@ -0,0 +1,186 @@
+package com.example.gasmeterreader.adapters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Instrumentation;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.gasmeterreader.R;
+import com.example.gasmeterreader.entities.Building;
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts row binds on the reading list of a 300-read building when the selection moves, in
+ * the whole list and within a search, when one value is typed and, as the baseline these
+ * replaced, on notifyDataSetChanged.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReadingAdapterBindTest {
+    private static final String TAG = "ReadingAdapterBindTest";
+    private static final int BUILDING_SIZE = 300;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 2400;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private Instrumentation instrumentation;
+    private Building building;
+    private List<Read> reads;
+    private RecyclerView recyclerView;
+    private ReadingAdapter adapter;
+    private int fullBinds;
+    private int partialBinds;
+    // Counted down when a submitted list is shown
+    private volatile CountDownLatch listChanged = new CountDownLatch(0);
+
+    @Before
+    public void setUp() throws Exception {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        building = ReadFixtures.building(1, 1000, BUILDING_SIZE);
+        reads = building.getNavigator().getReads();
+
+        CountDownLatch committed = new CountDownLatch(1);
+        instrumentation.runOnMainSync(() -> {
+            ContextThemeWrapper context = new ContextThemeWrapper(
+                    instrumentation.getTargetContext(), R.style.Theme_GasMeterReader);
+            adapter = new ReadingAdapter(context, read -> { }) {
+                @Override
+                public void onBindViewHolder(@NonNull ReadViewHolder holder, int position,
+                                             @NonNull List<Object> payloads) {
+                    if (!payloads.isEmpty()) {
+                        partialBinds++;
+                    } else {
+                        fullBinds++;
+                    }
+                    super.onBindViewHolder(holder, position, payloads);
+                }
+
+                @Override
+                public void onCurrentListChanged(@NonNull List<ReadItem> previousList,
+                                                 @NonNull List<ReadItem> currentList) {
+                    listChanged.countDown();
+                }
+            };
+            recyclerView = new RecyclerView(context);
+            recyclerView.setLayoutManager(new LinearLayoutManager(context));
+            // Binds are counted, not animated
+            recyclerView.setItemAnimator(null);
+            recyclerView.setAdapter(adapter);
+            adapter.updateReadings(building);
+            adapter.filter("", committed::countDown);
+        });
+        assertTrue(committed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        instrumentation.runOnMainSync(() -> {
+            adapter.setSelectedRead(reads.get(0));
+            layout();
+        });
+    }
+
+    @Test
+    public void selectionChangeRebindsTwoRows() {
+        int visible = visibleRows();
+        int[] baseline = new int[2];
+        int[] targeted = new int[2];
+        instrumentation.runOnMainSync(() -> {
+            resetCounts();
+            adapter.setSelectedRead(reads.get(1));
+            layout();
+            targeted[0] = fullBinds;
+            targeted[1] = partialBinds;
+
+            resetCounts();
+            adapter.notifyDataSetChanged();
+            layout();
+            baseline[0] = fullBinds;
+            baseline[1] = partialBinds;
+        });
+        Log.i(TAG, String.format("%d reads, %d visible: selection change %d full + %d partial binds,"
+                        + " notifyDataSetChanged %d full binds",
+                BUILDING_SIZE, visible, targeted[0], targeted[1], baseline[0]));
+
+        assertEquals(0, targeted[0]);
+        assertEquals(2, targeted[1]);
+        assertEquals(visible, baseline[0]);
+    }
+
+    @Test
+    public void editedValueRebindsOneRow() throws Exception {
+        listChanged = new CountDownLatch(1);
+        instrumentation.runOnMainSync(() -> {
+            resetCounts();
+            // Edited in place, as ReadingViewModel does
+            reads.get(0).setCurrent_read(1234.5);
+            reads.get(0).wasRead();
+            adapter.updateRead(reads.get(0));
+        });
+        assertTrue(listChanged.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        int[] binds = new int[2];
+        instrumentation.runOnMainSync(() -> {
+            layout();
+            binds[0] = fullBinds;
+            binds[1] = partialBinds;
+        });
+        Log.i(TAG, String.format("one edited value: %d full + %d partial binds", binds[0], binds[1]));
+
+        assertEquals(0, binds[0]);
+        assertEquals(1, binds[1]);
+        assertTrue(adapter.getCurrentList().get(0).isDone());
+    }
+
+    @Test
+    public void selectionInFilteredListRebindsItsRow() throws Exception {
+        Read searched = reads.get(150);
+        CountDownLatch committed = new CountDownLatch(1);
+        instrumentation.runOnMainSync(() ->
+                adapter.filter(String.valueOf(searched.getMeter_id()), committed::countDown));
+        assertTrue(committed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        int[] binds = new int[2];
+        instrumentation.runOnMainSync(() -> {
+            layout();
+            resetCounts();
+            // The read selected before is filtered out, so only the searched row rebinds
+            adapter.setSelectedRead(searched);
+            layout();
+            binds[0] = fullBinds;
+            binds[1] = partialBinds;
+        });
+
+        assertEquals(1, adapter.getItemCount());
+        assertEquals(0, binds[0]);
+        assertEquals(1, binds[1]);
+    }
+
+    private void layout() {
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    private int visibleRows() {
+        int[] count = new int[1];
+        instrumentation.runOnMainSync(() -> count[0] = recyclerView.getChildCount());
+        return count[0];
+    }
+
+    private void resetCounts() {
+        fullBinds = 0;
+        partialBinds = 0;
+    }
+}
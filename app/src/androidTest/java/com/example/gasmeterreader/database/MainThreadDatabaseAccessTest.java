@@ -0,0 +1,167 @@
+package com.example.gasmeterreader.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import android.app.Application;
+import android.app.Instrumentation;
+import android.os.Build;
+import android.os.StrictMode;
+import android.os.strictmode.Violation;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.gasmeterreader.entities.Building;
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+import com.example.gasmeterreader.viewModels.ReadingViewModel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Drives the repository and the reading screen's ViewModel from the main thread with a
+ * StrictMode disk policy installed there, and fails on any database access it reports.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MainThreadDatabaseAccessTest {
+    private static final int CENTER = 999_999;
+    private static final int USER_ID = 999_999_001;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final List<Violation> violations = Collections.synchronizedList(new ArrayList<>());
+    private Instrumentation instrumentation;
+    private Application application;
+    private AppDatabase db;
+    private StrictMode.ThreadPolicy previousPolicy;
+
+    @Before
+    public void setUp() {
+        // penaltyListener needs API 28
+        assumeTrue(Build.VERSION.SDK_INT >= Build.VERSION_CODES.P);
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        application = (Application) instrumentation.getTargetContext().getApplicationContext();
+        db = AppDatabase.getInstance(application);
+
+        // The test runner thread is not the main thread, so seeding here is allowed
+        Building building = ReadFixtures.building(CENTER, USER_ID, 1);
+        db.runInTransaction(() -> {
+            db.buildingDao().insertNew(Collections.singletonList(building));
+            db.readDao().insertAll(building.getReadList());
+        });
+
+        instrumentation.runOnMainSync(() -> {
+            previousPolicy = StrictMode.getThreadPolicy();
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectDiskReads()
+                    .detectDiskWrites()
+                    .penaltyListener(Runnable::run, this::onViolation)
+                    .build());
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (instrumentation == null) return;
+        instrumentation.runOnMainSync(() -> StrictMode.setThreadPolicy(previousPolicy));
+        AppDatabase.databaseExecutor.submit(() -> {}).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        db.getOpenHelper().getWritableDatabase()
+                .execSQL("DELETE FROM building WHERE center = ?", new Object[]{CENTER});
+        BuildingCache.getInstance().clear();
+    }
+
+    @Test
+    public void repositoryKeepsDatabaseWorkOffTheMainThread() throws Exception {
+        AtomicReference<BuildingRepository> repository = new AtomicReference<>();
+        AtomicReference<CompletableFuture<Building>> load = new AtomicReference<>();
+        instrumentation.runOnMainSync(() -> {
+            repository.set(new BuildingRepository(application));
+            load.set(repository.get().getBuildingByCenter(CENTER));
+        });
+        Building building = load.get().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull(building);
+        assertEquals(1, building.getReadList().size());
+
+        Read read = building.getReadList().get(0);
+        AtomicReference<CompletableFuture<Void>> save = new AtomicReference<>();
+        instrumentation.runOnMainSync(() -> {
+            read.setCurrent_read(101.5);
+            read.wasRead();
+            building.checkCompleted();
+            save.set(repository.get().saveRead(building, read));
+        });
+        save.get().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(101.5, db.readDao().getReadsByCenter(CENTER).get(0).getCurrent_read(), 0);
+        assertNoDatabaseViolations();
+    }
+
+    @Test
+    public void readingViewModelKeepsDatabaseWorkOffTheMainThread() throws Exception {
+        CountDownLatch loaded = new CountDownLatch(1);
+        AtomicReference<ReadingViewModel> viewModel = new AtomicReference<>();
+        instrumentation.runOnMainSync(() -> {
+            viewModel.set(new ReadingViewModel(application));
+            viewModel.get().getReads().observeForever(reads -> {
+                if (reads != null) loaded.countDown();
+            });
+            viewModel.get().loadReadsForBuilding(CENTER);
+        });
+        assertTrue(loaded.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        instrumentation.runOnMainSync(() -> {
+            viewModel.get().updateCurrentReadInput("102.5");
+            viewModel.get().flushPendingWrites();
+        });
+        AppDatabase.databaseExecutor.submit(() -> {}).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(102.5, db.readDao().getReadsByCenter(CENTER).get(0).getCurrent_read(), 0);
+        assertNoDatabaseViolations();
+    }
+
+    @Test
+    public void mainThreadQueriesAreRejected() {
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        instrumentation.runOnMainSync(() -> {
+            try {
+                db.readDao().getAllReads();
+            } catch (Throwable t) {
+                thrown.set(t);
+            }
+        });
+        assertTrue(thrown.get() instanceof IllegalStateException);
+    }
+
+    private void onViolation(Violation violation) {
+        Log.w("MainThreadDbTest", violation);
+        violations.add(violation);
+    }
+
+    private void assertNoDatabaseViolations() {
+        List<String> databaseViolations = new ArrayList<>();
+        synchronized (violations) {
+            for (Violation violation : violations) {
+                String trace = Log.getStackTraceString(violation);
+                if (trace.contains("android.database.sqlite") || trace.contains("androidx.room")) {
+                    databaseViolations.add(trace);
+                }
+            }
+        }
+        assertTrue("Database access on the main thread:\n" + databaseViolations,
+                databaseViolations.isEmpty());
+    }
+}
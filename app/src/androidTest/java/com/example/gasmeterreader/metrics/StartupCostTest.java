@@ -0,0 +1,90 @@
+package com.example.gasmeterreader.metrics;
+
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+import android.app.Instrumentation;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.gasmeterreader.api.Api;
+import com.example.gasmeterreader.database.AppDatabase;
+import com.example.gasmeterreader.database.BuildingRepository;
+import com.example.gasmeterreader.ml.ImageAnalyzer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the main-thread work of opening the three screens, before and after the shared
+ * container. Before, each ViewModel built its own repository, and with it an {@link Api},
+ * and the camera screen loaded the analyzer on the main thread. After, one repository is
+ * built without an Api and the analyzer loads on a background thread. Both are logged
+ * under the "Startup" tag, next to the milestones {@link StartupTiming} records.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupCostTest {
+    private static final String TAG = "Startup";
+    private static final int SCREENS = 3;
+    private static final int ROUNDS = 5;
+    private static final long TIMEOUT_SECONDS = 30;
+
+    @Test
+    public void containerKeepsStartupWorkOffTheMainThread() throws Exception {
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        Application application = (Application) instrumentation.getTargetContext().getApplicationContext();
+        ExecutorService mlExecutor = Executors.newSingleThreadExecutor();
+        long before = Long.MAX_VALUE;
+        long after = Long.MAX_VALUE;
+        long analyzerLoad = Long.MAX_VALUE;
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                // After first, so the first round charges class loading to the new path
+                long[] afterMain = new long[1];
+                CompletableFuture<Long> load = new CompletableFuture<>();
+                instrumentation.runOnMainSync(() -> {
+                    long start = SystemClock.uptimeMillis();
+                    new BuildingRepository(application);
+                    CompletableFuture.supplyAsync(() -> {
+                        long loadStart = SystemClock.uptimeMillis();
+                        new ImageAnalyzer(application).close();
+                        return SystemClock.uptimeMillis() - loadStart;
+                    }, mlExecutor).whenComplete((millis, failure) -> {
+                        if (failure != null) load.completeExceptionally(failure);
+                        else load.complete(millis);
+                    });
+                    afterMain[0] = SystemClock.uptimeMillis() - start;
+                });
+                analyzerLoad = Math.min(analyzerLoad, load.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+                after = Math.min(after, afterMain[0]);
+
+                long[] beforeMain = new long[1];
+                instrumentation.runOnMainSync(() -> {
+                    long start = SystemClock.uptimeMillis();
+                    AppDatabase db = AppDatabase.getInstance(application);
+                    for (int screen = 0; screen < SCREENS; screen++) {
+                        new Api(db, application);
+                    }
+                    new ImageAnalyzer(application).close();
+                    beforeMain[0] = SystemClock.uptimeMillis() - start;
+                });
+                before = Math.min(before, beforeMain[0]);
+            }
+        } finally {
+            mlExecutor.shutdown();
+        }
+
+        Log.i(TAG, String.format(Locale.US, "main thread before %d ms, after %d ms (analyzer %d ms in the background)",
+                before, after, analyzerLoad));
+        assertTrue("before " + before + " ms, after " + after + " ms", after < before);
+    }
+}
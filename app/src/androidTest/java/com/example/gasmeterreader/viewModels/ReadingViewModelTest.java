@@ -0,0 +1,126 @@
+package com.example.gasmeterreader.viewModels;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+import android.app.Instrumentation;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.gasmeterreader.database.AppDatabase;
+import com.example.gasmeterreader.database.BuildingCache;
+import com.example.gasmeterreader.entities.Building;
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Opens the reading screen's ViewModel the way a route-wide search result does, and checks
+ * that the read searched for is the one selected, already when the list is first shown, and
+ * that reloading on return from the camera screen keeps the read selected by hand.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReadingViewModelTest {
+    private static final int CENTER = 999_998;
+    private static final int FIRST_USER_ID = 999_998_001;
+    private static final int BUILDING_SIZE = 5;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private Instrumentation instrumentation;
+    private Application application;
+    private AppDatabase db;
+    private Building building;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        application = (Application) instrumentation.getTargetContext().getApplicationContext();
+        db = AppDatabase.getInstance(application);
+        building = ReadFixtures.building(CENTER, FIRST_USER_ID, BUILDING_SIZE);
+        db.runInTransaction(() -> {
+            db.buildingDao().insertNew(Collections.singletonList(building));
+            db.readDao().insertAll(building.getReadList());
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        AppDatabase.databaseExecutor.submit(() -> {}).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        db.getOpenHelper().getWritableDatabase()
+                .execSQL("DELETE FROM building WHERE center = ?", new Object[]{CENTER});
+        BuildingCache.getInstance().clear();
+    }
+
+    @Test
+    public void openingSearchResultSelectsIt() throws Exception {
+        // Not the first unread read, which is what the screen selects otherwise
+        Read searched = building.getReadList().get(3);
+        CountDownLatch loaded = new CountDownLatch(1);
+        AtomicReference<ReadingViewModel> viewModel = new AtomicReference<>();
+        AtomicReference<Read> selectedWhenShown = new AtomicReference<>();
+        instrumentation.runOnMainSync(() -> {
+            viewModel.set(new ReadingViewModel(application));
+            viewModel.get().getReads().observeForever(reads -> {
+                if (reads == null) return;
+                selectedWhenShown.set(viewModel.get().getSelectedRead().getValue());
+                loaded.countDown();
+            });
+            viewModel.get().requestSelection(searched.getUser_id());
+            viewModel.get().loadReadsForBuilding(CENTER);
+        });
+        assertTrue(loaded.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertNotNull(selectedWhenShown.get());
+        assertEquals(searched.getUser_id(), selectedWhenShown.get().getUser_id());
+        int[] position = new int[1];
+        instrumentation.runOnMainSync(() -> position[0] = viewModel.get().getSelectedPosition());
+        assertEquals(3, position[0]);
+
+        // Moving on walks from the result, not from where the screen would have started
+        instrumentation.runOnMainSync(() -> viewModel.get().moveToNextRead());
+        instrumentation.runOnMainSync(() -> position[0] = viewModel.get().getSelectedPosition());
+        assertEquals(4, position[0]);
+    }
+
+    @Test
+    public void refreshKeepsTheSelectedRead() throws Exception {
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch refreshed = new CountDownLatch(2);
+        AtomicReference<ReadingViewModel> viewModel = new AtomicReference<>();
+        instrumentation.runOnMainSync(() -> {
+            viewModel.set(new ReadingViewModel(application));
+            viewModel.get().getReads().observeForever(reads -> {
+                if (reads == null) return;
+                loaded.countDown();
+                refreshed.countDown();
+            });
+            viewModel.get().loadReadsForBuilding(CENTER);
+        });
+        assertTrue(loaded.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // Moved to by hand, as the reader does before opening the camera screen
+        Read chosen = building.getReadList().get(2);
+        instrumentation.runOnMainSync(() -> {
+            viewModel.get().setSelectedRead(chosen);
+            viewModel.get().refreshReads();
+        });
+        assertTrue(refreshed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        int[] position = new int[1];
+        instrumentation.runOnMainSync(() -> position[0] = viewModel.get().getSelectedPosition());
+        assertEquals(2, position[0]);
+        assertEquals(chosen.getUser_id(), viewModel.get().getSelectedRead().getValue().getUser_id());
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.gasmeterreader;
+
+import android.app.Application;
+import android.content.Context;
+import android.os.SystemClock;
+
+import com.example.gasmeterreader.database.BuildingRepository;
+import com.example.gasmeterreader.metrics.StartupMetrics;
+import com.example.gasmeterreader.metrics.StartupTiming;
+import com.example.gasmeterreader.ml.ImageAnalyzer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Holds the objects every screen shares, each created on first use: the repository (and
+ * through it the database and HTTP stack) and the image analyzer. Nothing is built in
+ * {@link #onCreate}, so a cold start only pays for what its first screen touches.
+ */
+public class GasMeterApp extends Application {
+    // Loading the models takes long enough that it must not hold up the main thread
+    private final ExecutorService mlExecutor = Executors.newSingleThreadExecutor();
+
+    private BuildingRepository repository;
+    private CompletableFuture<ImageAnalyzer> imageAnalyzer;
+
+    public static GasMeterApp from(Context context) {
+        return (GasMeterApp) context.getApplicationContext();
+    }
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        StartupTiming.record(StartupMetrics.APPLICATION_CREATED, StartupTiming.processStartUptime());
+    }
+
+    public synchronized BuildingRepository getRepository() {
+        if (repository == null) {
+            repository = new BuildingRepository(this);
+        }
+        return repository;
+    }
+
+    /**
+     * The one image analyzer, loaded on a background thread the first time it is asked for.
+     * Its per-read state carries over between screens, so callers reset it when they start.
+     * A failed load is not kept, so the next caller tries again.
+     */
+    public synchronized CompletableFuture<ImageAnalyzer> getImageAnalyzer() {
+        if (imageAnalyzer == null || imageAnalyzer.isCompletedExceptionally()) {
+            imageAnalyzer = CompletableFuture.supplyAsync(() -> {
+                long start = SystemClock.uptimeMillis();
+                ImageAnalyzer analyzer = new ImageAnalyzer(this);
+                StartupTiming.record(StartupMetrics.ANALYZER_LOADED, start);
+                return analyzer;
+            }, mlExecutor);
+        }
+        return imageAnalyzer;
+    }
+}
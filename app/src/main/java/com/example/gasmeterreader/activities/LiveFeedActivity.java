@@ -5,6 +5,8 @@ import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.Matrix;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.VibrationEffect;
 import android.os.Vibrator;
 import android.text.TextWatcher;
@@ -31,22 +33,31 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.gasmeterreader.BuildConfig;
 import com.example.gasmeterreader.R;
 import com.example.gasmeterreader.adapters.ReadSelectorAdapter;
 import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.metrics.PipelineStats;
+import com.example.gasmeterreader.metrics.StartupMetrics;
+import com.example.gasmeterreader.metrics.SystemTraceSink;
+import com.example.gasmeterreader.metrics.Tracer;
 import com.example.gasmeterreader.viewModels.LiveFeedViewModel;
 import com.google.android.material.bottomsheet.BottomSheetDialog;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class LiveFeedActivity extends AppCompatActivity {
     private static final long ANIMATION_DURATION = 300;
     private static final float SCALE_FACTOR = 1.2f;
+    private static final long STATS_REFRESH_INTERVAL = 500;
 
     private PreviewView previewView;
     private MaterialButton flashButton;
@@ -57,12 +68,26 @@ public class LiveFeedActivity extends AppCompatActivity {
     private TextView serialText;
     private TextView apartmentText;
     private TextView lastReadText;
+    private TextView statsOverlay;
 
     private Camera camera;
     private LiveFeedViewModel viewModel;
     private ReadSelectorAdapter readSelectorAdapter;
     private BottomSheetDialog bottomSheetDialog;
     private ExecutorService cameraExecutor;
+    private final PipelineStats stats = PipelineStats.getInstance();
+    private final StringBuilder statsText = new StringBuilder();
+    private final Handler statsHandler = new Handler(Looper.getMainLooper());
+    private final Runnable statsRefresh = new Runnable() {
+        @Override
+        public void run() {
+            statsText.setLength(0);
+            stats.appendSummary(statsText);
+            StartupMetrics.getInstance().appendSummary(statsText);
+            statsOverlay.setText(statsText);
+            statsHandler.postDelayed(this, STATS_REFRESH_INTERVAL);
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -100,8 +125,49 @@ public class LiveFeedActivity extends AppCompatActivity {
         apartmentText = findViewById(R.id.apartment);
         lastReadText = findViewById(R.id.lastRead);
         selectReadButton = findViewById(R.id.selectReadButton);
+        statsOverlay = findViewById(R.id.statsOverlay);
 
         setupButtonListeners();
+        setupStatsOverlay();
+    }
+
+    private void setupStatsOverlay() {
+        // A developer tool: release builds have no overlay, no tracing and no stats files
+        if (!BuildConfig.DEBUG) return;
+        Tracer.setSink(new SystemTraceSink());
+        // Tracing runs while the overlay is shown
+        detectionStatusIcon.setOnLongClickListener(v -> {
+            if (statsOverlay.getVisibility() == View.VISIBLE) {
+                statsHandler.removeCallbacks(statsRefresh);
+                statsOverlay.setVisibility(View.GONE);
+                Tracer.setEnabled(false);
+            } else {
+                Tracer.clear();
+                Tracer.setEnabled(true);
+                statsOverlay.setVisibility(View.VISIBLE);
+                statsRefresh.run();
+            }
+            return true;
+        });
+
+        statsOverlay.setOnClickListener(v -> dumpStats());
+    }
+
+    private void dumpStats() {
+        File directory = getExternalFilesDir(null);
+        if (directory == null) {
+            directory = getFilesDir();
+        }
+        long now = System.currentTimeMillis();
+        File file = new File(directory, "pipeline-stats-" + now + ".json");
+        File traceFile = new File(directory, "pipeline-trace-" + now + ".json");
+        try (Writer writer = new FileWriter(file); Writer traceWriter = new FileWriter(traceFile)) {
+            stats.writeJson(writer);
+            Tracer.writeJson(traceWriter);
+            Toast.makeText(this, directory.getAbsolutePath(), Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Toast.makeText(this, "שמירת הנתונים נכשלה", Toast.LENGTH_SHORT).show();
+        }
     }
 
     private void setupButtonListeners() {
@@ -148,6 +214,14 @@ public class LiveFeedActivity extends AppCompatActivity {
         viewModel.getIsFlashOn().observe(this, this::updateFlashState);
 
         viewModel.getErrorCount().observe(this, this::handleErrorCount);
+
+        viewModel.getAnalyzerFailed().observe(this, failed -> {
+            if (Boolean.TRUE.equals(failed)) {
+                Toast.makeText(this, "טעינת המודל נכשלה", Toast.LENGTH_LONG).show();
+                viewModel.setPaused(true);
+                showNumberInputDialog();
+            }
+        });
     }
 
     private void updateFlashState(Boolean isFlashOn) {
@@ -196,8 +270,9 @@ public class LiveFeedActivity extends AppCompatActivity {
             resetBottomSheetSearch();
         }
 
+        if (viewModel.getReadList().getValue() == null) return;
         viewModel.setPaused(true);
-        readSelectorAdapter.setReads(Objects.requireNonNull(viewModel.getReadList().getValue()));
+        readSelectorAdapter.setReads(viewModel.getReadList().getValue(), viewModel.getSearchIndex());
         bottomSheetDialog.show();
     }
 
@@ -215,8 +290,8 @@ public class LiveFeedActivity extends AppCompatActivity {
         RecyclerView recyclerView = bottomSheetView.findViewById(R.id.readsRecyclerView);
         recyclerView.setLayoutManager(new GridLayoutManager(this, 2));
 
-        readSelectorAdapter = new ReadSelectorAdapter(this, position -> {
-            viewModel.setListPlace(position);
+        readSelectorAdapter = new ReadSelectorAdapter(this, read -> {
+            viewModel.selectRead(read);
             bottomSheetDialog.dismiss();
         });
         recyclerView.setAdapter(readSelectorAdapter);
@@ -259,7 +334,8 @@ public class LiveFeedActivity extends AppCompatActivity {
     }
 
     private void updateReadDisplay(int place) {
-        List<Read> readList = Objects.requireNonNull(viewModel.getReadList().getValue());
+        List<Read> readList = viewModel.getReadList().getValue();
+        if (readList == null) return;
         Read currentRead = readList.get(place);
 
         serialText.setText(String.valueOf(currentRead.getMeter_id()));
@@ -330,12 +406,18 @@ public class LiveFeedActivity extends AppCompatActivity {
                 .build();
 
         imageAnalysis.setAnalyzer(cameraExecutor, imageProxy -> {
-            if (Boolean.TRUE.equals(viewModel.getIsPaused().getValue())) {
+            stats.frameIn(imageProxy.getImageInfo().getTimestamp());
+            boolean analyzed = false;
+            // Paused, or a reading is already accepted: skip the conversion too
+            if (viewModel.isAnalyzing()) {
+                analyzed = processCameraImage(imageProxy);
+            } else {
                 imageProxy.close();
-                return;
             }
-
-            processCameraImage(imageProxy);
+            // The one place skips are counted, whether dropped here or by the ViewModel
+            if (!analyzed) {
+                stats.frameSkipped();
+            }
         });
 
         preview.setSurfaceProvider(previewView.getSurfaceProvider());
@@ -347,32 +429,46 @@ public class LiveFeedActivity extends AppCompatActivity {
         } catch (Exception ignored) {}
     }
 
-    private void processCameraImage(ImageProxy imageProxy) {
-        Bitmap bitmapBuffer = Bitmap.createBitmap(
-                imageProxy.getWidth(),
-                imageProxy.getHeight(),
-                Bitmap.Config.ARGB_8888
-        );
-
-        bitmapBuffer.copyPixelsFromBuffer(imageProxy.getPlanes()[0].getBuffer());
-        imageProxy.close();
-
-        Matrix matrix = new Matrix();
-        matrix.postRotate(imageProxy.getImageInfo().getRotationDegrees());
-
-        Bitmap rotatedBitmap = Bitmap.createBitmap(
-                bitmapBuffer, 0, 0,
-                bitmapBuffer.getWidth(),
-                bitmapBuffer.getHeight(),
-                matrix, true
-        );
-
-        viewModel.processImage(rotatedBitmap);
+    /** Returns false if the ViewModel skipped the frame after it was converted. */
+    private boolean processCameraImage(ImageProxy imageProxy) {
+        boolean traced = Tracer.beginSection("processCameraImage");
+        try {
+            long start = System.nanoTime();
+            Bitmap bitmapBuffer = Bitmap.createBitmap(
+                    imageProxy.getWidth(),
+                    imageProxy.getHeight(),
+                    Bitmap.Config.ARGB_8888
+            );
+
+            bitmapBuffer.copyPixelsFromBuffer(imageProxy.getPlanes()[0].getBuffer());
+            imageProxy.close();
+            long convertEnd = System.nanoTime();
+            stats.record(PipelineStats.CONVERT, convertEnd - start);
+
+            Matrix matrix = new Matrix();
+            matrix.postRotate(imageProxy.getImageInfo().getRotationDegrees());
+
+            Bitmap rotatedBitmap = Bitmap.createBitmap(
+                    bitmapBuffer, 0, 0,
+                    bitmapBuffer.getWidth(),
+                    bitmapBuffer.getHeight(),
+                    matrix, true
+            );
+            stats.record(PipelineStats.ROTATE, System.nanoTime() - convertEnd);
+
+            if (!viewModel.processImage(rotatedBitmap)) return false;
+            stats.record(PipelineStats.FRAME, System.nanoTime() - start);
+            return true;
+        } finally {
+            Tracer.endSection("processCameraImage", traced);
+        }
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        statsHandler.removeCallbacks(statsRefresh);
+        Tracer.setEnabled(false);
         cameraExecutor.shutdown();
     }
 
@@ -2,37 +2,50 @@ package com.example.gasmeterreader.activities;
 
 import android.content.res.Configuration;
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.view.Menu;
+import android.view.MenuItem;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.SearchView;
 import androidx.core.content.ContextCompat;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
+import com.example.gasmeterreader.GasMeterApp;
 import com.example.gasmeterreader.R;
 import com.example.gasmeterreader.adapters.BuildingAdapter;
-import com.example.gasmeterreader.entities.Building;
+import com.example.gasmeterreader.adapters.SearchHitAdapter;
+import com.example.gasmeterreader.api.ReadUploader;
+import com.example.gasmeterreader.entities.ReadSearchHit;
+import com.example.gasmeterreader.metrics.StartupMetrics;
+import com.example.gasmeterreader.metrics.StartupTiming;
 import com.example.gasmeterreader.viewModels.MainViewModel;
 import com.google.android.material.checkbox.MaterialCheckBox;
 import com.google.android.material.floatingactionbutton.ExtendedFloatingActionButton;
 import com.google.android.material.textview.MaterialTextView;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 public class MainActivity extends AppCompatActivity {
     private MainViewModel viewModel;
     private BuildingAdapter buildingListAdapter;
+    private SearchHitAdapter searchHitAdapter;
+    private RecyclerView lstBuildings;
+    private boolean searching;
+    private int buildingCount;
     private SwipeRefreshLayout swipeRefreshLayout;
     private ExtendedFloatingActionButton uploadFab;
     private MaterialCheckBox filterCheckbox;  // Add this
     private MaterialTextView itemCounter;
+    private int pendingUploads;
+    private boolean uploading;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        long createdUptime = SystemClock.uptimeMillis();
         // Set font scale and status bar
         overridePendingTransition(R.animator.slide_in_right, R.animator.slide_out_left);
         Configuration config = getResources().getConfiguration();
@@ -44,6 +57,13 @@ public class MainActivity extends AppCompatActivity {
         initializeUI();
         setupRecyclerView();
         setupObservers();
+
+        StartupTiming.onFirstFrame(this, () -> {
+            StartupTiming.recordOnce(StartupMetrics.MAIN_FIRST_FRAME_COLD, StartupTiming.processStartUptime());
+            StartupTiming.record(StartupMetrics.MAIN_FIRST_FRAME, createdUptime);
+            // The camera screen is usually next; its models load while the list is read
+            GasMeterApp.from(this).getImageAnalyzer();
+        });
     }
 
     private void initializeUI() {
@@ -57,17 +77,17 @@ public class MainActivity extends AppCompatActivity {
 
         swipeRefreshLayout.setOnRefreshListener(this::handleRefresh);
 
-        filterCheckbox.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            updateBuildingsList(Objects.requireNonNull(viewModel.getBuildings().getValue()));
-        });
+        filterCheckbox.setOnCheckedChangeListener((buttonView, isChecked) ->
+                viewModel.setIncompleteOnly(isChecked));
 
         // Setup FAB
         setupFloatingActionButton();
     }
 
     private void setupRecyclerView() {
-        RecyclerView lstBuildings = findViewById(R.id.lstBuildings);
-        buildingListAdapter = new BuildingAdapter(null, this);
+        lstBuildings = findViewById(R.id.lstBuildings);
+        buildingListAdapter = new BuildingAdapter(this);
+        searchHitAdapter = new SearchHitAdapter(this);
 
         lstBuildings.setAdapter(buildingListAdapter);
         lstBuildings.setLayoutManager(new LinearLayoutManager(this));
@@ -85,17 +105,92 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void setupObservers() {
-        viewModel.getBuildings().observe(this, this::updateBuildingsList);
+        viewModel.getBuildings().observe(this, buildings ->
+                buildingListAdapter.updateBuildings(getLifecycle(), buildings));
+        viewModel.getBuildingCount().observe(this, this::updateBuildingCount);
+        viewModel.getUploadProgress().observe(this, this::updateUploadProgress);
+        viewModel.getPendingUploadCount().observe(this, this::updatePendingUploads);
+        viewModel.getSearchResults().observe(this, this::updateSearchResults);
+        viewModel.getIsSyncing().observe(this, swipeRefreshLayout::setRefreshing);
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_main, menu);
+        MenuItem searchItem = menu.findItem(R.id.action_search);
+        SearchView searchView = (SearchView) searchItem.getActionView();
+        searchView.setQueryHint(getString(R.string.search_route_hint));
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                searchView.clearFocus();
+                return true;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                viewModel.search(newText);
+                return true;
+            }
+        });
+        // The building list gives way to the hits while the search is open
+        searchItem.setOnActionExpandListener(new MenuItem.OnActionExpandListener() {
+            @Override
+            public boolean onMenuItemActionExpand(@NonNull MenuItem item) {
+                searching = true;
+                lstBuildings.setAdapter(searchHitAdapter);
+                updateSearchResults(viewModel.getSearchResults().getValue());
+                return true;
+            }
+
+            @Override
+            public boolean onMenuItemActionCollapse(@NonNull MenuItem item) {
+                searching = false;
+                viewModel.search("");
+                lstBuildings.setAdapter(buildingListAdapter);
+                itemCounter.setText(buildingCount + " מרכזיות");
+                return true;
+            }
+        });
+        return true;
+    }
+
+    private void updateSearchResults(List<ReadSearchHit> hits) {
+        searchHitAdapter.submitList(hits);
+        if (searching) {
+            itemCounter.setText(getString(R.string.search_results, hits != null ? hits.size() : 0));
+        }
     }
 
     private void handleRefresh() {
         viewModel.reloadBuildings();
-        swipeRefreshLayout.setRefreshing(false);
     }
 
     private void handleFabClick() {
         uploadFab.extend();
         viewModel.updateAllReadings();
+    }
+
+    private void updatePendingUploads(Integer pending) {
+        pendingUploads = pending != null ? pending : 0;
+        if (!uploading) {
+            uploadFab.setText(getString(R.string.upload_pending, pendingUploads));
+        }
+    }
+
+    private void updateUploadProgress(ReadUploader.Progress progress) {
+        uploading = progress != null && !progress.isFinished();
+        if (progress == null) {
+            uploadFab.setText(getString(R.string.upload_pending, pendingUploads));
+            return;
+        }
+        if (!progress.isFinished()) {
+            uploadFab.setText(getString(R.string.upload_progress, progress.getUploaded(), progress.getTotal()));
+            return;
+        }
+        uploadFab.setText(progress.getFailed() == 0
+                ? getString(R.string.upload_done, progress.getUploaded())
+                : getString(R.string.upload_failed, progress.getFailed()));
         uploadFab.postDelayed(uploadFab::shrink, 2000);
     }
 
@@ -107,23 +202,10 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    private void updateBuildingsList(List<Building> buildings) {
-        if (buildings == null) {
-            buildingListAdapter.updateBuildings(new ArrayList<>());
-            itemCounter.setText("0 מרכזיות");
-            return;
-        }
-
-        List<Building> displayList = buildings;
-        if (filterCheckbox != null && filterCheckbox.isChecked()) {
-            displayList = buildings.stream()
-                    .filter(building -> !building.isComplete())
-                    .collect(Collectors.toList());
+    private void updateBuildingCount(Integer count) {
+        buildingCount = count != null ? count : 0;
+        if (!searching) {
+            itemCounter.setText(buildingCount + " מרכזיות");
         }
-
-        // Update the counter
-        itemCounter.setText(displayList.size() + " מרכזיות");
-        buildingListAdapter.updateBuildings(displayList);
-        swipeRefreshLayout.setRefreshing(false);
     }
 }
\ No newline at end of file
@@ -51,6 +51,8 @@ public class ReadingActivity extends AppCompatActivity {
     private TextInputEditText searchInput;
     private boolean isSearchVisible = false;
     private boolean isSearchIconClose = false;
+    // The first resume follows the load in onCreate, so only later ones refresh
+    private boolean resumedBefore = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -66,7 +68,7 @@ public class ReadingActivity extends AppCompatActivity {
         });
 
         initializeViews();
-        setupViewModel();
+        setupViewModel(savedInstanceState);
         setupRecyclerView();
         setupCameraPermissionLauncher();
         setupLiveFeedButton();
@@ -117,18 +119,9 @@ public class ReadingActivity extends AppCompatActivity {
         currentReadInput.setOnEditorActionListener((v, actionId, event) -> {
             if (actionId == EditorInfo.IME_ACTION_DONE ||
                     actionId == EditorInfo.IME_ACTION_NEXT) {
-                // Get the current list of reads
-                List<Read> currentReads = viewModel.getReads().getValue();
-                Read currentSelectedRead = viewModel.getSelectedRead().getValue();
-
-                if (currentReads != null && currentSelectedRead != null) {
-                    int currentIndex = currentReads.indexOf(currentSelectedRead);
-
+                if (viewModel.getSelectedRead().getValue() != null) {
                     // If there's a next read, select it
-                    if (currentIndex < currentReads.size() - 1) {
-                        Read nextRead = currentReads.get(currentIndex + 1);
-                        viewModel.setSelectedRead(nextRead);
-                    } else {
+                    if (!viewModel.moveToNextRead()) {
                         Toast.makeText(this, "סיום קריאה", Toast.LENGTH_SHORT).show();
                         InputMethodManager imm = (InputMethodManager) getSystemService(Context.INPUT_METHOD_SERVICE);
                         imm.hideSoftInputFromWindow(currentReadInput.getWindowToken(), 0);
@@ -166,10 +159,16 @@ public class ReadingActivity extends AppCompatActivity {
         });
     }
 
-    private void setupViewModel() {
+    private void setupViewModel(Bundle savedInstanceState) {
         viewModel = new ViewModelProvider(this).get(ReadingViewModel.class);
         buildingNumber = getIntent().getIntExtra("building_center", -1);
-        viewModel.loadReadsForBuilding(buildingNumber);
+        if (savedInstanceState == null) {
+            viewModel.requestSelection(getIntent().getIntExtra("user_id", -1));
+        }
+        // A ViewModel kept across a configuration change already has the building
+        if (viewModel.getBuilding() == null) {
+            viewModel.loadReadsForBuilding(buildingNumber);
+        }
 
         viewModel.getSelectedRead().observe(this, read -> {
             if (read != null) {
@@ -182,7 +181,7 @@ public class ReadingActivity extends AppCompatActivity {
         });
 
         viewModel.getCameraPermissionGranted().observe(this, granted -> {
-            if(viewModel.getBuilding().isComplete()){
+            if(viewModel.getBuilding() != null && viewModel.getBuilding().isComplete()){
                 Toast.makeText(this,
                         "כל הקריאות הושלמו",
                         Toast.LENGTH_SHORT).show();
@@ -291,51 +290,49 @@ public class ReadingActivity extends AppCompatActivity {
 
     private void setupRecyclerView() {
         RecyclerView lstReadings = findViewById(R.id.read_lst);
-        readingAdapter = new ReadingAdapter(null, viewModel, this);
+        readingAdapter = new ReadingAdapter(this, viewModel::setSelectedRead);
         lstReadings.setAdapter(readingAdapter);
         LinearLayoutManager layoutManager = new LinearLayoutManager(this);
         lstReadings.setLayoutManager(layoutManager);
 
-        // Observe reads
+        // The ViewModel selects a read before posting the list, so it only needs showing
         viewModel.getReads().observe(this, reads -> {
-            readingAdapter.updateReadings(reads);
-            // If no read is currently selected and there are reads, select the first unread
-            if (viewModel.getSelectedRead().getValue() == null && !reads.isEmpty()) {
-                for (Read read : reads) {
-                    if (!read.isRead()) {
-                        viewModel.setSelectedRead(read);
-                        break;
-                    }
-                }
-                // If all reads are read, select the first one
-                if (viewModel.getSelectedRead().getValue() == null) {
-                    viewModel.setSelectedRead(reads.get(0));
-                }
+            readingAdapter.updateReadings(viewModel.getBuilding());
+            showSelectedRead(lstReadings, layoutManager, viewModel.getSelectedRead().getValue());
+        });
+
+        // A typed value rebinds only its own row
+        viewModel.getEditedRead().observe(this, read -> {
+            if (read != null) {
+                readingAdapter.updateRead(read);
             }
         });
 
         // Observe selected read to update RecyclerView and scroll position
-        viewModel.getSelectedRead().observe(this, selectedRead -> {
-            if (selectedRead != null && readingAdapter != null) {
-                readingAdapter.notifyDataSetChanged();
-
-                // Update read counter
-                List<Read> currentReads = viewModel.getReads().getValue();
-                if (currentReads != null) {
-                    int position = currentReads.indexOf(selectedRead);
-                    readCounterText.setText(String.format("(%d/%d)", position + 1, currentReads.size()));
-
-                    // Find the position of the selected read
-                    int lastVisibleItemPosition = layoutManager.findLastCompletelyVisibleItemPosition();
-
-                    // If the selected read is not in the visible area, scroll to show it at the bottom
-                    int totalItemCount = layoutManager.getItemCount();
-                    if (position < lastVisibleItemPosition - 1 || position > lastVisibleItemPosition) {
-                        lstReadings.scrollToPosition(Math.min(position, totalItemCount - 1));
-                    }
+        viewModel.getSelectedRead().observe(this, selectedRead ->
+                showSelectedRead(lstReadings, layoutManager, selectedRead));
+    }
+
+    private void showSelectedRead(RecyclerView lstReadings, LinearLayoutManager layoutManager, Read selectedRead) {
+        if (selectedRead != null && readingAdapter != null) {
+            readingAdapter.setSelectedRead(selectedRead);
+
+            // Update read counter
+            List<Read> currentReads = viewModel.getReads().getValue();
+            int position = viewModel.getSelectedPosition();
+            if (currentReads != null && position != -1) {
+                readCounterText.setText(String.format("(%d/%d)", position + 1, currentReads.size()));
+
+                // Find the position of the selected read
+                int lastVisibleItemPosition = layoutManager.findLastCompletelyVisibleItemPosition();
+
+                // If the selected read is not in the visible area, scroll to show it at the bottom
+                int totalItemCount = layoutManager.getItemCount();
+                if (position < lastVisibleItemPosition - 1 || position > lastVisibleItemPosition) {
+                    lstReadings.scrollToPosition(Math.min(position, totalItemCount - 1));
                 }
             }
-        });
+        }
     }
 
     private void setupCameraPermissionLauncher() {
@@ -369,13 +366,22 @@ public class ReadingActivity extends AppCompatActivity {
 
     private void startLiveFeedActivity() {
         Intent intent = new Intent(this, LiveFeedActivity.class);
-        intent.putExtra("building_center", viewModel.getBuilding().getCenter());
+        intent.putExtra("building_center", buildingNumber);
         startActivity(intent);
     }
 
+    @Override
+    protected void onPause() {
+        super.onPause();
+        viewModel.flushPendingWrites();
+    }
+
     @Override
     protected void onResume() {
         super.onResume();
-        viewModel.loadReadsForBuilding(buildingNumber);
+        if (resumedBefore) {
+            viewModel.refreshReads();
+        }
+        resumedBefore = true;
     }
 }
\ No newline at end of file
@@ -9,23 +9,47 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.gasmeterreader.R;
 import com.example.gasmeterreader.activities.ReadingActivity;
-import com.example.gasmeterreader.entities.Building;
+import com.example.gasmeterreader.entities.BuildingSummary;
 
-import java.util.List;
+import java.util.Objects;
+
+/**
+ * The building list, loaded a page at a time; rows not loaded yet are bound as empty
+ * placeholders. Every new generation is diffed against the shown one on a background thread.
+ */
+public class BuildingAdapter extends PagingDataAdapter<BuildingSummary, BuildingAdapter.VideoViewHolder> {
+    private static final DiffUtil.ItemCallback<BuildingSummary> DIFF = new DiffUtil.ItemCallback<BuildingSummary>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull BuildingSummary oldItem, @NonNull BuildingSummary newItem) {
+            return oldItem.getCenter() == newItem.getCenter();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull BuildingSummary oldItem, @NonNull BuildingSummary newItem) {
+            // Room builds new summaries for every emission, so these are never the same objects
+            return oldItem.getBuildingNumber() == newItem.getBuildingNumber()
+                    && oldItem.isComplete() == newItem.isComplete()
+                    && oldItem.getTotalReads() == newItem.getTotalReads()
+                    && oldItem.getDoneReads() == newItem.getDoneReads()
+                    && Objects.equals(oldItem.getAddress(), newItem.getAddress())
+                    && Objects.equals(oldItem.getCity(), newItem.getCity());
+        }
+    };
 
-public class BuildingAdapter extends RecyclerView.Adapter<BuildingAdapter.VideoViewHolder> {
-    private List<Building> buildingsList;
     private final Context context;
 
-    @SuppressLint("NotifyDataSetChanged")
-    public BuildingAdapter(List<Building> buildingsList, Context context) {
-        this.buildingsList = buildingsList;
+    // No stable ids: PagingDataAdapter does not support them, the diff keeps rows in place instead
+    public BuildingAdapter(Context context) {
+        super(DIFF);
         this.context = context;
-        notifyDataSetChanged();
     }
 
     @NonNull
@@ -38,31 +62,39 @@ public class BuildingAdapter extends RecyclerView.Adapter<BuildingAdapter.VideoV
     @SuppressLint("DefaultLocale")
     @Override
     public void onBindViewHolder(@NonNull VideoViewHolder holder, int position) {
-        Building building = buildingsList.get(position);
+        BuildingSummary building = getItem(position);
+        if (building == null) {
+            bindPlaceholder(holder);
+            return;
+        }
         holder.street.setText(String.format("%s %d", building.getAddress(), building.getBuildingNumber()));
         holder.center.setText(String.format("%d",building.getCenter()));
-        holder.leftTodo.setText(String.format("%d",building.getLeftToDo()));
-        holder.total.setText(String.format("%d",building.getReadList().size()));
+        holder.leftTodo.setText(String.format("%d",building.getDoneReads()));
+        holder.total.setText(String.format("%d",building.getTotalReads()));
         holder.city.setText(String.format("%s",building.getCity()));
 
         holder.itemView.setOnClickListener(v -> {
-            Building clickedBuildingItem = buildingsList.get(holder.getAdapterPosition());
+            int clicked = holder.getBindingAdapterPosition();
+            if (clicked == RecyclerView.NO_POSITION) return;
+            BuildingSummary clickedBuildingItem = peek(clicked);
+            if (clickedBuildingItem == null) return;
             Intent i = new Intent(context, ReadingActivity.class);
             i.putExtra("building_center", clickedBuildingItem.getCenter());
             context.startActivity(i);
         });
     }
 
-    public void updateBuildings(List<Building> newBuildings) {
-        buildingsList = newBuildings;
-        notifyDataSetChanged();
+    private void bindPlaceholder(VideoViewHolder holder) {
+        holder.street.setText("");
+        holder.center.setText("");
+        holder.leftTodo.setText("");
+        holder.total.setText("");
+        holder.city.setText("");
+        holder.itemView.setOnClickListener(null);
     }
 
-    @Override
-    public int getItemCount() {
-        if (buildingsList != null) {
-            return buildingsList.size();
-        } else return 0;
+    public void updateBuildings(Lifecycle lifecycle, PagingData<BuildingSummary> buildings) {
+        submitData(lifecycle, buildings);
     }
 
     static class VideoViewHolder extends RecyclerView.ViewHolder {
@@ -0,0 +1,90 @@
+package com.example.gasmeterreader.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.example.gasmeterreader.entities.Read;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * What a read row shows, captured when the list is submitted. Reads are edited in place,
+ * so diffing the reads themselves would compare each one with itself and miss the change.
+ * Never changed once built, as a background diff may be comparing it; a typed value is
+ * shown by submitting a new item for its row.
+ */
+final class ReadItem {
+    static final DiffUtil.ItemCallback<ReadItem> DIFF = new DiffUtil.ItemCallback<ReadItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ReadItem oldItem, @NonNull ReadItem newItem) {
+            return oldItem.userId == newItem.userId;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ReadItem oldItem, @NonNull ReadItem newItem) {
+            return oldItem.equals(newItem);
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull ReadItem oldItem, @NonNull ReadItem newItem) {
+            // Only the typed value changed, which the card colour and current value show
+            boolean sameRow = oldItem.meterId == newItem.meterId
+                    && oldItem.apartment == newItem.apartment
+                    && Double.compare(oldItem.lastRead, newItem.lastRead) == 0;
+            return sameRow ? ReadingAdapter.PAYLOAD_VALUE : null;
+        }
+    };
+
+    final Read read;
+    final int userId;
+    final int meterId;
+    final int apartment;
+    final double lastRead;
+    final double currentRead;
+    final boolean isRead;
+    final String userStatus;
+
+    ReadItem(Read read) {
+        this.read = read;
+        userId = read.getUser_id();
+        meterId = read.getMeter_id();
+        apartment = read.getApartment();
+        lastRead = read.getLast_read();
+        currentRead = read.getCurrent_read();
+        isRead = read.isRead();
+        userStatus = read.getUser_status();
+    }
+
+    static List<ReadItem> of(List<Read> reads) {
+        List<ReadItem> items = new ArrayList<>(reads.size());
+        for (Read read : reads) {
+            items.add(new ReadItem(read));
+        }
+        return items;
+    }
+
+    boolean isDone() {
+        return isRead && currentRead != 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ReadItem)) return false;
+        ReadItem other = (ReadItem) o;
+        return userId == other.userId
+                && meterId == other.meterId
+                && apartment == other.apartment
+                && Double.compare(lastRead, other.lastRead) == 0
+                && Double.compare(currentRead, other.currentRead) == 0
+                && isRead == other.isRead
+                && Objects.equals(userStatus, other.userStatus);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, meterId, apartment, lastRead, currentRead, isRead, userStatus);
+    }
+}
@@ -7,28 +7,36 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.gasmeterreader.R;
 import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.utils.ReadSearchIndex;
 import com.google.android.material.card.MaterialCardView;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
-public class ReadSelectorAdapter extends RecyclerView.Adapter<ReadSelectorAdapter.ReadViewHolder> {
+/**
+ * The reads to jump to from the camera screen, diffed on a background thread as the
+ * search text changes.
+ */
+public class ReadSelectorAdapter extends ListAdapter<ReadItem, ReadSelectorAdapter.ReadViewHolder> {
     private List<Read> reads = new ArrayList<>();
-    private List<Read> filteredReads = new ArrayList<>();
+    private ReadSearchIndex searchIndex = new ReadSearchIndex(reads);
     private final OnReadSelectedListener listener;
     private final Context context;
 
     public interface OnReadSelectedListener {
-        void onReadSelected(int position);
+        void onReadSelected(Read read);
     }
 
     public ReadSelectorAdapter(Context context, OnReadSelectedListener listener) {
+        super(ReadItem.DIFF);
         this.listener = listener;
         this.context = context;
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -41,36 +49,39 @@ public class ReadSelectorAdapter extends RecyclerView.Adapter<ReadSelectorAdapte
 
     @Override
     public void onBindViewHolder(@NonNull ReadViewHolder holder, int position) {
-        Read read = filteredReads.get(position);
-        holder.apartmentText.setText("דירה " + read.getApartment());
-        holder.meterIdText.setText("מונה " + read.getMeter_id());
-        holder.lastRead.setText(String.format("קודם: %.2f", read.getLast_read()));
+        ReadItem item = getItem(position);
+        holder.apartmentText.setText("דירה " + item.apartment);
+        holder.meterIdText.setText("מונה " + item.meterId);
+        holder.lastRead.setText(String.format("קודם: %.2f", item.lastRead));
 
-        if (read.isRead() && read.getCurrent_read() != 0) {
+        if (item.isDone()) {
             holder.card.setCardBackgroundColor(ContextCompat.getColor(context, R.color.readDone));
-        } else if (!Objects.equals(read.getUser_status(), null)) {
+        } else if (!Objects.equals(item.userStatus, null)) {
             holder.card.setCardBackgroundColor(ContextCompat.getColor(context, R.color.readNotValid));
         }
 
         holder.itemView.setOnClickListener(v -> {
-            int originalPosition = reads.indexOf(filteredReads.get(position));
-            listener.onReadSelected(originalPosition);
+            int clicked = holder.getBindingAdapterPosition();
+            if (clicked != RecyclerView.NO_POSITION) {
+                listener.onReadSelected(getItem(clicked).read);
+            }
         });
     }
 
     @Override
-    public int getItemCount() {
-        return filteredReads.size();
+    public long getItemId(int position) {
+        return getItem(position).userId;
     }
 
-    public void setReads(List<Read> reads) {
+    /** Shows {@code reads}, searched through {@code searchIndex}, which must index that same list. */
+    public void setReads(List<Read> reads, ReadSearchIndex searchIndex) {
         this.reads = reads;
-        this.filteredReads = new ArrayList<>(reads);
-        notifyDataSetChanged();
+        this.searchIndex = searchIndex;
+        submitList(ReadItem.of(reads));
     }
 
     public void filter(String query) {
-        filteredReads.clear();
+        List<Read> filteredReads = new ArrayList<>();
         if (query.isEmpty()) {
             for (Read read : reads) {
                 if (!read.isRead() || read.getCurrent_read() == 0) {
@@ -78,14 +89,12 @@ public class ReadSelectorAdapter extends RecyclerView.Adapter<ReadSelectorAdapte
                 }
             }
         } else {
-            for (Read read : reads) {
-                if (String.valueOf(read.getApartment()).contains(query) ||
-                        String.valueOf(read.getMeter_id()).contains(query)) {
-                    filteredReads.add(read);
-                }
+            int count = searchIndex.search(query);
+            for (int i = 0; i < count; i++) {
+                filteredReads.add(reads.get(searchIndex.getMatch(i)));
             }
         }
-        notifyDataSetChanged();
+        submitList(ReadItem.of(filteredReads));
     }
 
     static class ReadViewHolder extends RecyclerView.ViewHolder {
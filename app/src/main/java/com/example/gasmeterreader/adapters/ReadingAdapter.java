@@ -7,27 +7,48 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.gasmeterreader.R;
+import com.example.gasmeterreader.entities.Building;
 import com.example.gasmeterreader.entities.Read;
-import com.example.gasmeterreader.viewModels.ReadingViewModel;
+import com.example.gasmeterreader.utils.ReadNavigator;
+import com.example.gasmeterreader.utils.ReadSearchIndex;
 import com.google.android.material.card.MaterialCardView;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
-public class ReadingAdapter extends RecyclerView.Adapter<ReadingAdapter.ReadViewHolder> {
-    private List<Read> readList;
-    private List<Read> filteredList;
-    private final ReadingViewModel viewModel;
+/**
+ * The reads of a building, diffed on a background thread whenever the list or the filter
+ * changes. Moving the selection rebinds only the rows that gain and lose it, and typing a
+ * value only the row it was typed into.
+ */
+public class ReadingAdapter extends ListAdapter<ReadItem, ReadingAdapter.ReadViewHolder> {
+    // Both rebind only the card colour and current value
+    static final Object PAYLOAD_SELECTION = new Object();
+    static final Object PAYLOAD_VALUE = new Object();
+
+    private ReadNavigator navigator = new ReadNavigator(new ArrayList<>());
+    // The building's own, shared with the camera screen's selector
+    private ReadSearchIndex searchIndex = new ReadSearchIndex(navigator.getReads());
+    // Last submitted, maybe still diffing; getCurrentList() is the one shown
+    private List<ReadItem> submitted = new ArrayList<>();
+    private String query = "";
+    private int selectedUserId = -1;
+    private final OnReadClickListener listener;
     private final Context context;
     private final LayoutInflater inflater;
 
-    public ReadingAdapter(List<Read> readList, ReadingViewModel viewModel, Context context) {
-        this.viewModel = viewModel;
+    public interface OnReadClickListener {
+        void onReadClicked(Read read);
+    }
+
+    public ReadingAdapter(Context context, OnReadClickListener listener) {
+        super(ReadItem.DIFF);
+        this.listener = listener;
         this.context = context;
         this.inflater = LayoutInflater.from(context);
-        updateReadings(readList);
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -38,44 +59,67 @@ public class ReadingAdapter extends RecyclerView.Adapter<ReadingAdapter.ReadView
 
     @Override
     public void onBindViewHolder(@NonNull ReadViewHolder holder, int position) {
-        Read read = filteredList.get(position);
-        Read selectedRead = viewModel.getSelectedRead().getValue();
+        ReadItem item = getItem(position);
+        bindReadData(holder, item);
+        updateCardAppearance(holder, item);
+        holder.itemView.setOnClickListener(v -> {
+            int clicked = holder.getBindingAdapterPosition();
+            if (clicked != RecyclerView.NO_POSITION) {
+                listener.onReadClicked(getItem(clicked).read);
+            }
+        });
+    }
 
-        bindReadData(holder, read);
-        updateCardAppearance(holder, read, selectedRead);
-        setupClickListener(holder, position);
+    @Override
+    public void onBindViewHolder(@NonNull ReadViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_SELECTION && payload != PAYLOAD_VALUE) {
+                onBindViewHolder(holder, position);
+                return;
+            }
+        }
+        updateCardAppearance(holder, getItem(position));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).userId;
     }
 
-    private void bindReadData(ReadViewHolder holder, Read read) {
-        holder.serial.setText(String.format("סיריאלי: %d", read.getMeter_id()));
-        holder.apartment.setText(String.format("דירה %d", read.getApartment()));
-        holder.last_read.setText(String.format("קודם: %.2f", read.getLast_read()));
+    private void bindReadData(ReadViewHolder holder, ReadItem item) {
+        holder.serial.setText(String.format("סיריאלי: %d", item.meterId));
+        holder.apartment.setText(String.format("דירה %d", item.apartment));
+        holder.last_read.setText(String.format("קודם: %.2f", item.lastRead));
     }
 
-    private void updateCardAppearance(ReadViewHolder holder, Read read, Read selectedRead) {
-        boolean isSelected = selectedRead != null && selectedRead.getMeter_id() == read.getMeter_id();
+    private void updateCardAppearance(ReadViewHolder holder, ReadItem item) {
+        boolean isSelected = item.userId == selectedUserId;
 
-        if (read.getUser_status() != null) {
-            handleStatusRead(holder, read, isSelected);
-        } else if (read.isRead() && read.getCurrent_read() != 0) {
-            handleCompletedRead(holder, read, isSelected);
+        if (item.userStatus != null) {
+            handleStatusRead(holder, item, isSelected);
+        } else if (item.isDone()) {
+            handleCompletedRead(holder, item, isSelected);
         } else {
             handlePendingRead(holder, isSelected);
         }
     }
 
-    private void handleStatusRead(ReadViewHolder holder, Read read, boolean isSelected) {
+    private void handleStatusRead(ReadViewHolder holder, ReadItem item, boolean isSelected) {
         holder.card.setCardBackgroundColor(ContextCompat.getColor(context,
                 isSelected ? R.color.readNotValidSelected : R.color.readNotValid));
         holder.current_read.setText(isSelected ?
-                String.format("נוכחי: %.2f", read.getCurrent_read()) :
-                read.getUser_status());
+                String.format("נוכחי: %.2f", item.currentRead) :
+                item.userStatus);
     }
 
-    private void handleCompletedRead(ReadViewHolder holder, Read read, boolean isSelected) {
+    private void handleCompletedRead(ReadViewHolder holder, ReadItem item, boolean isSelected) {
         holder.card.setCardBackgroundColor(ContextCompat.getColor(context,
                 isSelected ? R.color.readDoneSelected : R.color.readDone));
-        holder.current_read.setText(String.format("נוכחי: %.2f", read.getCurrent_read()));
+        holder.current_read.setText(String.format("נוכחי: %.2f", item.currentRead));
     }
 
     private void handlePendingRead(ReadViewHolder holder, boolean isSelected) {
@@ -84,45 +128,84 @@ public class ReadingAdapter extends RecyclerView.Adapter<ReadingAdapter.ReadView
         holder.current_read.setText("");
     }
 
-    private void setupClickListener(ReadViewHolder holder, int position) {
-        holder.itemView.setOnClickListener(v -> {
-            if (position < filteredList.size()) {
-                viewModel.setSelectedRead(filteredList.get(position));
-            }
-        });
+    /** Marks {@code read} as selected, rebinding only it and the row selected before. */
+    public void setSelectedRead(Read read) {
+        int userId = read != null ? read.getUser_id() : -1;
+        if (userId == selectedUserId) return;
+        int previous = rowOf(getCurrentList(), selectedUserId);
+        selectedUserId = userId;
+        if (previous != RecyclerView.NO_POSITION) {
+            notifyItemChanged(previous, PAYLOAD_SELECTION);
+        }
+        int current = rowOf(getCurrentList(), userId);
+        if (current != RecyclerView.NO_POSITION) {
+            notifyItemChanged(current, PAYLOAD_SELECTION);
+        }
     }
 
-    @Override
-    public int getItemCount() {
-        return filteredList != null ? filteredList.size() : 0;
+    /**
+     * Shows the new value of {@code read}, edited in place, by submitting the list last
+     * submitted with a new item for its row. The diff finds only that row changed and
+     * rebinds it with {@link #PAYLOAD_VALUE}.
+     */
+    public void updateRead(Read read) {
+        // The list last submitted, so a filter still being diffed is kept
+        int row = rowOf(submitted, read.getUser_id());
+        if (row == RecyclerView.NO_POSITION) return;
+        List<ReadItem> items = new ArrayList<>(submitted);
+        items.set(row, new ReadItem(read));
+        submitted = items;
+        submitList(items);
     }
 
-    public void updateReadings(List<Read> newReads) {
-        this.readList = newReads != null ? newReads : new ArrayList<>();
-        this.filteredList = new ArrayList<>(this.readList);
-        notifyDataSetChanged();
+    /** Shows the building's reads in walking order, searched through its shared index. */
+    public void updateReadings(Building building) {
+        navigator = building.getNavigator();
+        searchIndex = building.getSearchIndex();
+        submitFiltered(null);
     }
 
     public void filter(String query) {
-        if (readList == null) return;
+        filter(query, null);
+    }
 
-        filteredList = new ArrayList<>();
-        if (query.isEmpty()) {
-            filteredList.addAll(readList);
-        } else {
-            String lowercaseQuery = query.toLowerCase();
-            for (Read read : readList) {
-                if (matchesFilter(read, lowercaseQuery)) {
-                    filteredList.add(read);
-                }
-            }
+    /** Like {@link #filter(String)}; {@code commitCallback} runs once the list is shown. */
+    public void filter(String query, Runnable commitCallback) {
+        this.query = query;
+        submitFiltered(commitCallback);
+    }
+
+    private void submitFiltered(Runnable commitCallback) {
+        int count = searchIndex.search(query);
+        List<ReadItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new ReadItem(navigator.get(searchIndex.getMatch(i))));
         }
-        notifyDataSetChanged();
+        submitted = items;
+        submitList(items, commitCallback);
     }
 
-    private boolean matchesFilter(Read read, String query) {
-        return String.valueOf(read.getApartment()).contains(query) ||
-                String.valueOf(read.getMeter_id()).contains(query);
+    /**
+     * The row showing {@code userId} in {@code items}, which are in walking order, found by
+     * its place in the building.
+     */
+    private int rowOf(List<ReadItem> items, int userId) {
+        int position = userId != -1 ? navigator.indexOf(userId) : -1;
+        if (position == -1) return RecyclerView.NO_POSITION;
+        int low = 0;
+        int high = items.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midPosition = navigator.indexOf(items.get(mid).userId);
+            if (midPosition < position) {
+                low = mid + 1;
+            } else if (midPosition > position) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return RecyclerView.NO_POSITION;
     }
 
     static class ReadViewHolder extends RecyclerView.ViewHolder {
@@ -141,4 +224,4 @@ public class ReadingAdapter extends RecyclerView.Adapter<ReadingAdapter.ReadView
             current_read = itemView.findViewById(R.id.current_read);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,91 @@
+package com.example.gasmeterreader.adapters;
+
+import android.content.Context;
+import android.content.Intent;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.gasmeterreader.R;
+import com.example.gasmeterreader.activities.ReadingActivity;
+import com.example.gasmeterreader.entities.ReadSearchHit;
+
+import java.util.Objects;
+
+/** Route-wide search results; a hit opens its building with that read selected. */
+public class SearchHitAdapter extends ListAdapter<ReadSearchHit, SearchHitAdapter.HitViewHolder> {
+    private static final DiffUtil.ItemCallback<ReadSearchHit> DIFF = new DiffUtil.ItemCallback<ReadSearchHit>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ReadSearchHit oldItem, @NonNull ReadSearchHit newItem) {
+            return oldItem.getUser_id() == newItem.getUser_id();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ReadSearchHit oldItem, @NonNull ReadSearchHit newItem) {
+            return oldItem.getMeter_id() == newItem.getMeter_id()
+                    && oldItem.getHouse_number() == newItem.getHouse_number()
+                    && oldItem.getApartment() == newItem.getApartment()
+                    && Objects.equals(oldItem.getUser_name(), newItem.getUser_name())
+                    && Objects.equals(oldItem.getStreet(), newItem.getStreet())
+                    && Objects.equals(oldItem.getCity(), newItem.getCity());
+        }
+    };
+
+    private final Context context;
+
+    public SearchHitAdapter(Context context) {
+        super(DIFF);
+        this.context = context;
+        setHasStableIds(true);
+    }
+
+    @NonNull
+    @Override
+    public HitViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_search_hit, parent, false);
+        return new HitViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull HitViewHolder holder, int position) {
+        ReadSearchHit hit = getItem(position);
+        holder.userName.setText(hit.getUser_name());
+        holder.meterId.setText(String.valueOf(hit.getMeter_id()));
+        holder.address.setText(context.getString(R.string.search_hit_address,
+                hit.getStreet(), hit.getHouse_number(), hit.getApartment(), hit.getCity()));
+
+        holder.itemView.setOnClickListener(v -> {
+            int clicked = holder.getBindingAdapterPosition();
+            if (clicked == RecyclerView.NO_POSITION) return;
+            ReadSearchHit clickedHit = getItem(clicked);
+            Intent i = new Intent(context, ReadingActivity.class);
+            i.putExtra("building_center", clickedHit.getCenter());
+            i.putExtra("user_id", clickedHit.getUser_id());
+            context.startActivity(i);
+        });
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getUser_id();
+    }
+
+    static class HitViewHolder extends RecyclerView.ViewHolder {
+        final TextView userName;
+        final TextView meterId;
+        final TextView address;
+
+        HitViewHolder(@NonNull View itemView) {
+            super(itemView);
+            userName = itemView.findViewById(R.id.userName);
+            meterId = itemView.findViewById(R.id.meterId);
+            address = itemView.findViewById(R.id.address);
+        }
+    }
+}
@@ -1,57 +1,158 @@
 package com.example.gasmeterreader.api;
 
-import static com.example.gasmeterreader.utils.EntityUtils.assignReadsToBuildings;
-
 import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
 
-import androidx.annotation.NonNull;
-
-import com.example.gasmeterreader.database.BuildingDao;
-import com.example.gasmeterreader.R;
+import com.example.gasmeterreader.database.AppDatabase;
+import com.example.gasmeterreader.database.BuildingCache;
+import com.example.gasmeterreader.entities.Building;
 import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.entities.ReadFts;
+import com.example.gasmeterreader.utils.ReadMerger;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
-import retrofit2.Call;
-import retrofit2.Callback;
+import okhttp3.ResponseBody;
 import retrofit2.Response;
-import retrofit2.Retrofit;
-import retrofit2.converter.gson.GsonConverterFactory;
 
 public class Api {
-    private final BuildingDao dao;
-    Retrofit retrofit;
-    WebServiceApi webServiceApi;
-
-    public Api(BuildingDao dao, Context context) {
-        this.dao = dao;
-        retrofit = new Retrofit.Builder().baseUrl(context.getString(R.string.baseUrl))
-                .addConverterFactory(GsonConverterFactory.create()).build();
-        webServiceApi = retrofit.create(WebServiceApi.class);
+    private static final String TAG = "Api";
+    private static final String PREFS_NAME = "sync";
+    private static final String KEY_ETAG = "etag";
+    // Below SQLite's 999 bound parameters on older devices
+    private static final int MAX_QUERY_ARGS = 900;
+    static final int BATCH_SIZE = 500;
+    private static final int UPLOAD_CHUNK_SIZE = 200;
+    private static final int UPLOAD_MAX_CONCURRENT = 2;
+    private static final int UPLOAD_MAX_ATTEMPTS = 3;
+    // Network and parsing, kept off the database executor so queries are not held up
+    private static final ExecutorService syncExecutor = Executors.newSingleThreadExecutor();
+
+    private final AppDatabase db;
+    private final SharedPreferences syncPrefs;
+    private final WebServiceApi webServiceApi;
+    private final Executor executor;
+    private final ReadUploader uploader;
+
+    public Api(AppDatabase db, Context context) {
+        this(db, context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE),
+                HttpStack.getInstance(context).getWebServiceApi(), syncExecutor);
     }
 
-    public void getReads() {
-        Call<List<Read>> call = webServiceApi.getReads();
-        call.enqueue(new Callback<List<Read>>() {
-            @Override
-            public void onResponse(@NonNull Call<List<Read>> call, @NonNull Response<List<Read>> response) {
-                assert response.body() != null;
-                dao.insertList(assignReadsToBuildings(response.body()));
+    Api(AppDatabase db, SharedPreferences syncPrefs, WebServiceApi webServiceApi, Executor executor) {
+        this.db = db;
+        this.syncPrefs = syncPrefs;
+        this.webServiceApi = webServiceApi;
+        this.executor = executor;
+        uploader = new ReadUploader(webServiceApi, UPLOAD_CHUNK_SIZE, UPLOAD_MAX_CONCURRENT, UPLOAD_MAX_ATTEMPTS);
+    }
+
+    /**
+     * Fetches what changed since the last sync and merges it into the local reads, one
+     * transaction per batch, so memory use is bounded by the batch size and not the route.
+     * Completes exceptionally if the download or a merge fails; the batches committed
+     * before that stay, and the next sync fetches the same changes again.
+     */
+    public CompletableFuture<Void> getReads() {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                sync();
+            } catch (IOException e) {
+                throw new CompletionException(e);
             }
-            @Override
-            public void onFailure(@NonNull Call<List<Read>> call, @NonNull Throwable t) {
+        }, executor).whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                Log.w(TAG, "Sync failed", failure);
             }
         });
     }
 
-    public void updateRead(int readId, Read updatedread) {
-        Call<Void> call = webServiceApi.updateRead(readId,updatedread);
-        call.enqueue(new Callback<Void>() {
+    private void sync() throws IOException {
+        Response<ResponseBody> response =
+                webServiceApi.getReads(syncPrefs.getString(KEY_ETAG, null)).execute();
+        ReadSync.Payload payload = ReadSync.fromResponse(response);
+        if (payload.isNotModified()) return;
+        Set<Integer> knownCenters = new HashSet<>(db.buildingDao().getCenters());
+        payload.readBatches(BATCH_SIZE, batch -> {
+            ReadMerger.Result result = db.runInTransaction(() -> mergeBatch(batch, knownCenters));
+            BuildingCache.getInstance().invalidate(result.getTouchedCenters());
+        });
+        // Only once every batch is committed, so an interrupted sync is fetched again
+        syncPrefs.edit().putString(KEY_ETAG, payload.getEtag()).apply();
+    }
+
+    private ReadMerger.Result mergeBatch(List<Read> batch, Set<Integer> knownCenters) {
+        List<Integer> userIds = new ArrayList<>(batch.size());
+        for (Read read : batch) {
+            userIds.add(read.getUser_id());
+        }
+        Map<Integer, Read> local = new HashMap<>();
+        for (List<Integer> chunk : chunks(userIds)) {
+            for (Read read : db.readDao().getReadsByIds(chunk)) {
+                local.put(read.getUser_id(), read);
+            }
+        }
+
+        ReadMerger.Result result = ReadMerger.merge(batch, local, knownCenters);
+        // Buildings first, the reads reference them
+        db.buildingDao().insertNew(result.getNewBuildings());
+        for (Building building : result.getNewBuildings()) {
+            knownCenters.add(building.getCenter());
+        }
+        db.readDao().insertAll(result.getUpserts());
+        List<ReadFts> searchRows = new ArrayList<>(result.getUpserts().size());
+        for (Read read : result.getUpserts()) {
+            searchRows.add(ReadFts.of(read));
+        }
+        db.readSearchDao().insertAll(searchRows);
+        for (List<Integer> chunk : chunks(new ArrayList<>(result.getTouchedCenters()))) {
+            db.buildingDao().refreshComplete(chunk);
+        }
+        return result;
+    }
+
+    private static List<List<Integer>> chunks(List<Integer> values) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int start = 0; start < values.size(); start += MAX_QUERY_ARGS) {
+            chunks.add(values.subList(start, Math.min(values.size(), start + MAX_QUERY_ARGS)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Uploads every read edited since its last accepted upload, blocking until done, and
+     * reports progress from the upload threads. Accepted reads stay dirty if they were
+     * edited again meanwhile. Runs from {@link UploadWorker}.
+     */
+    public ReadUploader.Progress uploadChangedReads(Consumer<ReadUploader.Progress> onProgress)
+            throws InterruptedException {
+        List<Read> changed = db.readDao().getDirtyReads();
+        return uploader.upload(changed, new ReadUploader.Listener() {
             @Override
-            public void onResponse(@NonNull Call<Void> call, @NonNull Response<Void> response) {
+            public void onUploaded(List<Read> reads) {
+                db.runInTransaction(() -> {
+                    for (Read read : reads) {
+                        db.readDao().markSynced(read.getUser_id(), read.getSync_version());
+                    }
+                });
             }
+
             @Override
-            public void onFailure(@NonNull Call<Void> call, @NonNull Throwable t) {
+            public void onProgress(ReadUploader.Progress progress) {
+                onProgress.accept(progress);
             }
         });
     }
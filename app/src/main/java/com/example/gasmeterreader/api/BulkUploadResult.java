@@ -0,0 +1,17 @@
+package com.example.gasmeterreader.api;
+
+import java.util.Collections;
+import java.util.List;
+
+/** The server's answer to a bulk upload: the user_ids it did not accept, if any. */
+public class BulkUploadResult {
+    private List<Integer> failed;
+
+    public BulkUploadResult(List<Integer> failed) {
+        this.failed = failed;
+    }
+
+    public List<Integer> getFailed() {
+        return failed != null ? failed : Collections.emptyList();
+    }
+}
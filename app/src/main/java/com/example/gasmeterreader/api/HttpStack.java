@@ -0,0 +1,83 @@
+package com.example.gasmeterreader.api;
+
+import android.content.Context;
+
+import com.example.gasmeterreader.R;
+import com.example.gasmeterreader.utils.JsonAdapters;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * The one HTTP client and Retrofit service for the whole app, so connections, the
+ * response cache and the request limits are shared by every caller.
+ */
+public class HttpStack {
+    static final long CACHE_SIZE = 20L * 1024 * 1024;
+    static final int MAX_REQUESTS = 8;
+    static final int MAX_REQUESTS_PER_HOST = 4;
+    private static final int MAX_IDLE_CONNECTIONS = 4;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    private static HttpStack instance;
+
+    private final OkHttpClient client;
+    private final WebServiceApi webServiceApi;
+
+    private HttpStack(Context context) {
+        client = newClientBuilder(new File(context.getCacheDir(), "http")).build();
+        webServiceApi = createApi(client, context.getString(R.string.baseUrl));
+    }
+
+    public static synchronized HttpStack getInstance(Context context) {
+        if (instance == null) {
+            instance = new HttpStack(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public OkHttpClient getClient() {
+        return client;
+    }
+
+    public WebServiceApi getWebServiceApi() {
+        return webServiceApi;
+    }
+
+    static OkHttpClient.Builder newClientBuilder(File cacheDir) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(MAX_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                // Full routes are kept and revalidated with their ETag when the sync has none
+                .cache(new Cache(cacheDir, CACHE_SIZE))
+                .addInterceptor(new GzipRequestInterceptor())
+                .addNetworkInterceptor(chain -> {
+                    Response response = chain.proceed(chain.request());
+                    // A delta only makes sense against the state it was computed from
+                    if ("true".equalsIgnoreCase(response.header(ReadSync.DELTA_HEADER))) {
+                        return response.newBuilder().header("Cache-Control", "no-store").build();
+                    }
+                    return response;
+                });
+    }
+
+    static WebServiceApi createApi(OkHttpClient client, String baseUrl) {
+        return new Retrofit.Builder()
+                .baseUrl(baseUrl)
+                .client(client)
+                .addConverterFactory(GsonConverterFactory.create(JsonAdapters.GSON))
+                .build()
+                .create(WebServiceApi.class);
+    }
+}
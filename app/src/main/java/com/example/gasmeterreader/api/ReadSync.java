@@ -0,0 +1,63 @@
+package com.example.gasmeterreader.api;
+
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.utils.ReadStreamReader;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+/**
+ * The incremental sync protocol. The client sends the ETag of its last sync in
+ * If-None-Match. The server answers 304 when nothing changed, or 200 with a new ETag and
+ * either the full route or, flagged by {@link #DELTA_HEADER}, only the reads that changed.
+ * Both are merged the same way, batch by batch as the body streams in.
+ */
+public class ReadSync {
+    public static final String DELTA_HEADER = "X-Sync-Delta";
+    static final int NOT_MODIFIED = 304;
+
+    public static class Payload {
+        private final boolean notModified;
+        private final String etag;
+        private final ResponseBody body;
+
+        Payload(boolean notModified, String etag, ResponseBody body) {
+            this.notModified = notModified;
+            this.etag = etag;
+            this.body = body;
+        }
+
+        public boolean isNotModified() {
+            return notModified;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        /** Streams the reads to {@code batchConsumer} and closes the body. */
+        public int readBatches(int batchSize, Consumer<List<Read>> batchConsumer) throws IOException {
+            try (ResponseBody responseBody = body) {
+                return ReadStreamReader.readBatches(responseBody.charStream(), batchSize, batchConsumer);
+            }
+        }
+    }
+
+    public static Payload fromResponse(Response<ResponseBody> response) throws IOException {
+        if (!response.isSuccessful() || response.body() == null) {
+            // Releases the connection for reuse
+            if (response.errorBody() != null) {
+                response.errorBody().close();
+            }
+            if (response.code() == NOT_MODIFIED) {
+                return new Payload(true, null, null);
+            }
+            throw new IOException("Sync failed with HTTP " + response.code());
+        }
+        return new Payload(false, response.headers().get("ETag"), response.body());
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.gasmeterreader.api;
+
+import com.example.gasmeterreader.entities.Read;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import retrofit2.Response;
+
+/**
+ * Uploads changed reads through the bulk endpoint in chunks, with a cap on how many
+ * requests are in flight. A failed request retries its whole chunk, a rejected item only
+ * itself, for up to {@code maxAttempts} rounds.
+ */
+public class ReadUploader {
+
+    public interface Listener {
+        /** Called from an upload thread with the reads the server accepted. */
+        void onUploaded(List<Read> reads);
+
+        /** Called from an upload thread whenever a chunk finishes. */
+        void onProgress(Progress progress);
+    }
+
+    public static class Progress {
+        private final int uploaded;
+        private final int failed;
+        private final int total;
+        private final boolean finished;
+
+        public Progress(int uploaded, int failed, int total, boolean finished) {
+            this.uploaded = uploaded;
+            this.failed = failed;
+            this.total = total;
+            this.finished = finished;
+        }
+
+        public int getUploaded() {
+            return uploaded;
+        }
+
+        /** Reads still not accepted; before the last round they will be tried again. */
+        public int getFailed() {
+            return failed;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public boolean isFinished() {
+            return finished;
+        }
+    }
+
+    private final WebServiceApi webServiceApi;
+    private final int chunkSize;
+    private final int maxConcurrentRequests;
+    private final int maxAttempts;
+
+    public ReadUploader(WebServiceApi webServiceApi, int chunkSize, int maxConcurrentRequests, int maxAttempts) {
+        if (chunkSize < 1 || maxConcurrentRequests < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("chunkSize, maxConcurrentRequests and maxAttempts must be positive");
+        }
+        this.webServiceApi = webServiceApi;
+        this.chunkSize = chunkSize;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /** Blocks until every read was accepted or ran out of attempts, and returns the final progress. */
+    public Progress upload(List<Read> reads, Listener listener) throws InterruptedException {
+        int total = reads.size();
+        AtomicInteger uploaded = new AtomicInteger();
+        List<Read> pending = reads;
+        ExecutorService requests = Executors.newFixedThreadPool(maxConcurrentRequests);
+        try {
+            for (int attempt = 1; attempt <= maxAttempts && !pending.isEmpty(); attempt++) {
+                List<Read> retry = Collections.synchronizedList(new ArrayList<>());
+                AtomicInteger outstanding = new AtomicInteger(pending.size());
+                List<Future<?>> futures = new ArrayList<>();
+                for (int start = 0; start < pending.size(); start += chunkSize) {
+                    List<Read> chunk = pending.subList(start, Math.min(pending.size(), start + chunkSize));
+                    futures.add(requests.submit(() -> {
+                        List<Read> accepted = uploadChunk(chunk, retry);
+                        if (!accepted.isEmpty()) {
+                            listener.onUploaded(accepted);
+                        }
+                        int done = uploaded.addAndGet(accepted.size());
+                        int left = outstanding.addAndGet(-chunk.size());
+                        listener.onProgress(new Progress(done, total - done - left, total, false));
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        // A listener failure; those reads stay dirty for the next upload
+                    }
+                }
+                pending = new ArrayList<>(retry);
+            }
+        } finally {
+            requests.shutdownNow();
+        }
+        Progress progress = new Progress(uploaded.get(), total - uploaded.get(), total, true);
+        listener.onProgress(progress);
+        return progress;
+    }
+
+    /** Returns the reads the server accepted and adds the rest to {@code retry}. */
+    private List<Read> uploadChunk(List<Read> chunk, List<Read> retry) {
+        Response<BulkUploadResult> response;
+        try {
+            response = webServiceApi.uploadReads(chunk).execute();
+        } catch (IOException | RuntimeException e) {
+            retry.addAll(chunk);
+            return Collections.emptyList();
+        }
+        if (!response.isSuccessful()) {
+            retry.addAll(chunk);
+            return Collections.emptyList();
+        }
+        Set<Integer> failed = response.body() != null
+                ? new HashSet<>(response.body().getFailed()) : Collections.emptySet();
+        List<Read> accepted = new ArrayList<>(chunk.size());
+        for (Read read : chunk) {
+            if (failed.contains(read.getUser_id())) {
+                retry.add(read);
+            } else {
+                accepted.add(read);
+            }
+        }
+        return accepted;
+    }
+}
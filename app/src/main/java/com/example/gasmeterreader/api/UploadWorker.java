@@ -0,0 +1,123 @@
+package com.example.gasmeterreader.api;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.gasmeterreader.database.AppDatabase;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the upload outbox: the reads still marked dirty. Local edits schedule it after a
+ * short delay, so a burst of entries goes out as one run; a run that leaves anything dirty
+ * is retried with exponential backoff, and a periodic sweep on charger catches the rest.
+ */
+public class UploadWorker extends Worker {
+    public static final String UNIQUE_NAME = "upload-reads";
+    private static final String PERIODIC_NAME = "upload-reads-sweep";
+    private static final String KEY_UPLOADED = "uploaded";
+    private static final String KEY_FAILED = "failed";
+    private static final String KEY_TOTAL = "total";
+    // Gathers the entries of a few apartments into one run
+    private static final long TRICKLE_DELAY_SECONDS = 30;
+    private static final long BACKOFF_SECONDS = 30;
+    // After that the periodic sweep or the next edit takes over
+    private static final int MAX_RUN_ATTEMPTS = 8;
+
+    public UploadWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        AppDatabase db = AppDatabase.getInstance(getApplicationContext());
+        Api api = new Api(db, getApplicationContext());
+        ReadUploader.Progress progress;
+        try {
+            progress = api.uploadChangedReads(update -> setProgressAsync(toData(update)));
+        } catch (InterruptedException e) {
+            return Result.retry();
+        }
+        // Also catches edits made while this run was uploading
+        if (db.readDao().getDirtyCount() == 0) {
+            return Result.success(toData(progress));
+        }
+        return getRunAttemptCount() + 1 < MAX_RUN_ATTEMPTS ? Result.retry() : Result.failure(toData(progress));
+    }
+
+    /** Called after every local edit; edits before the run starts share it. */
+    public static void schedule(Context context) {
+        enqueue(context, TRICKLE_DELAY_SECONDS, ExistingWorkPolicy.KEEP);
+    }
+
+    /** Starts a run now, for the upload button. */
+    public static void uploadNow(Context context) {
+        enqueue(context, 0, ExistingWorkPolicy.REPLACE);
+    }
+
+    public static void schedulePeriodicSweep(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .setRequiresCharging(true)
+                .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(UploadWorker.class, 6, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(PERIODIC_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    private static void enqueue(Context context, long delaySeconds, ExistingWorkPolicy policy) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(UploadWorker.class)
+                .setConstraints(constraints)
+                .setInitialDelay(delaySeconds, TimeUnit.SECONDS)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_SECONDS, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(UNIQUE_NAME, policy, request);
+    }
+
+    /** The progress of a run, or null while none is running or just finished. */
+    public static ReadUploader.Progress progressOf(WorkInfo info) {
+        if (info == null) return null;
+        switch (info.getState()) {
+            case RUNNING:
+                Data progress = info.getProgress();
+                return progress.getKeyValueMap().isEmpty() ? null : fromData(progress, false);
+            case SUCCEEDED:
+            case FAILED:
+                return fromData(info.getOutputData(), true);
+            default:
+                return null;
+        }
+    }
+
+    private static Data toData(ReadUploader.Progress progress) {
+        return new Data.Builder()
+                .putInt(KEY_UPLOADED, progress.getUploaded())
+                .putInt(KEY_FAILED, progress.getFailed())
+                .putInt(KEY_TOTAL, progress.getTotal())
+                .build();
+    }
+
+    private static ReadUploader.Progress fromData(Data data, boolean finished) {
+        return new ReadUploader.Progress(data.getInt(KEY_UPLOADED, 0), data.getInt(KEY_FAILED, 0),
+                data.getInt(KEY_TOTAL, 0), finished);
+    }
+}
@@ -4,16 +4,24 @@ import com.example.gasmeterreader.entities.Read;
 
 import java.util.List;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
 import retrofit2.http.POST;
-import retrofit2.http.Path;
+import retrofit2.http.Streaming;
 
 public interface WebServiceApi {
+    /**
+     * See {@link ReadSync} for how {@code etag} and the response headers are used. The body
+     * is left unread so the route can be parsed as it downloads.
+     */
+    @Streaming
     @GET("/")
-    Call<List<Read>> getReads();
+    Call<ResponseBody> getReads(@Header("If-None-Match") String etag);
 
-    @POST("/{id}")
-    Call<Void> updateRead(@Path("id") int id ,@Body Read read);
+    /** Uploads a chunk of changed reads; items the server rejects come back by user_id. */
+    @POST("/bulk")
+    Call<BulkUploadResult> uploadReads(@Body List<Read> reads);
 }
@@ -1,27 +1,142 @@
 package com.example.gasmeterreader.database;
 
 import android.content.Context;
+import android.database.Cursor;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
-import androidx.room.TypeConverters;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
 
 import com.example.gasmeterreader.entities.Building;
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.entities.ReadFts;
 import com.example.gasmeterreader.utils.Converters;
 
-@Database(entities = {Building.class}, version = 1)
-@TypeConverters({Converters.class})
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Database(entities = {Building.class, Read.class, ReadFts.class}, version = 5)
 public abstract class AppDatabase extends RoomDatabase {
     static AppDatabase instance;
+
+    /**
+     * Runs every query and write, Room's LiveData queries included. A single thread keeps
+     * writes in submission order and lets a read see every write submitted before it.
+     */
+    public static final ExecutorService databaseExecutor = Executors.newSingleThreadExecutor();
+
     public abstract BuildingDao buildingDao();
+    public abstract ReadDao readDao();
+    public abstract ReadSearchDao readSearchDao();
+
+    /** Moves the reads out of each building's JSON blob into the read table. */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `building` RENAME TO `building_v1`");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `building` (`address` TEXT, `city` TEXT, "
+                    + "`buildingNumber` INTEGER NOT NULL, `center` INTEGER NOT NULL, "
+                    + "`isComplete` INTEGER NOT NULL, PRIMARY KEY(`center`))");
+            db.execSQL("INSERT INTO `building` (`address`, `city`, `buildingNumber`, `center`, `isComplete`) "
+                    + "SELECT `address`, `city`, `buildingNumber`, `center`, `isComplete` FROM `building_v1`");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `read` (`user_id` INTEGER NOT NULL, `city` TEXT, "
+                    + "`street` TEXT, `house_number` INTEGER NOT NULL, `entry` TEXT, `order` INTEGER NOT NULL, "
+                    + "`user_name` TEXT, `user_status` TEXT, `apartment` INTEGER NOT NULL, "
+                    + "`meter_id` INTEGER NOT NULL, `last_read` REAL NOT NULL, `current_read` REAL NOT NULL, "
+                    + "`center` INTEGER NOT NULL, `comment` TEXT, `isRead` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`user_id`), FOREIGN KEY(`center`) REFERENCES `building`(`center`) "
+                    + "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_read_center` ON `read` (`center`)");
+
+            SupportSQLiteStatement insert = db.compileStatement("INSERT OR REPLACE INTO `read` "
+                    + "(`user_id`, `city`, `street`, `house_number`, `entry`, `order`, `user_name`, "
+                    + "`user_status`, `apartment`, `meter_id`, `last_read`, `current_read`, `center`, "
+                    + "`comment`, `isRead`) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+            try (Cursor cursor = db.query("SELECT `center`, `readList` FROM `building_v1`")) {
+                while (cursor.moveToNext()) {
+                    int center = cursor.getInt(0);
+                    List<Read> reads = Converters.toReadList(cursor.getString(1));
+                    if (reads == null) continue;
+                    for (Read read : reads) {
+                        bindRead(insert, read, center);
+                        insert.executeInsert();
+                    }
+                }
+            }
+            db.execSQL("DROP TABLE `building_v1`");
+        }
+    };
+
+    /** Adds the dirty flag; reads already entered on the device count as not uploaded. */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `read` ADD COLUMN `dirty` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("UPDATE `read` SET `dirty` = 1 WHERE `isRead` = 1");
+        }
+    };
+
+    /** Adds the per-read edit counter the bulk upload acknowledges against. */
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `read` ADD COLUMN `sync_version` INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    /** Adds the route-wide search table and fills it from the reads already synced. */
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `read_fts` USING FTS4(`meter_id` TEXT, "
+                    + "`user_name` TEXT, `street` TEXT, `house_number` TEXT, `apartment` TEXT, `city` TEXT)");
+            db.execSQL("INSERT INTO `read_fts` (`rowid`, `meter_id`, `user_name`, `street`, `house_number`, "
+                    + "`apartment`, `city`) SELECT `user_id`, CAST(`meter_id` AS TEXT), `user_name`, `street`, "
+                    + "CAST(`house_number` AS TEXT), CAST(`apartment` AS TEXT), `city` FROM `read`");
+        }
+    };
+
+    private static void bindRead(SupportSQLiteStatement statement, Read read, int center) {
+        statement.clearBindings();
+        statement.bindLong(1, read.getUser_id());
+        bindNullable(statement, 2, read.getCity());
+        bindNullable(statement, 3, read.getStreet());
+        statement.bindLong(4, read.getHouse_number());
+        bindNullable(statement, 5, read.getEntry());
+        statement.bindLong(6, read.getOrder());
+        bindNullable(statement, 7, read.getUser_name());
+        bindNullable(statement, 8, read.getUser_status());
+        statement.bindLong(9, read.getApartment());
+        statement.bindLong(10, read.getMeter_id());
+        statement.bindDouble(11, read.getLast_read());
+        statement.bindDouble(12, read.getCurrent_read());
+        // The blob's owner wins over the read's own center, which the foreign key relies on
+        statement.bindLong(13, center);
+        bindNullable(statement, 14, read.getComment());
+        statement.bindLong(15, read.isRead() ? 1 : 0);
+    }
+
+    private static void bindNullable(SupportSQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
 
     public static synchronized AppDatabase getInstance(Context context) {
         if (instance == null) {
             instance = Room.databaseBuilder(context, AppDatabase.class, "buildingDb")
-                    .allowMainThreadQueries()
+                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5)
+                    .setQueryExecutor(databaseExecutor)
                     .build();
         }
         return instance;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package com.example.gasmeterreader.database;
+
+import com.example.gasmeterreader.entities.Building;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Loaded buildings with their reads, shared by every screen so they edit the same objects.
+ * Bounded by the total number of reads held, least recently used building out first.
+ * Writes go to Room as they happen through {@link BuildingRepository#saveReads}, so the
+ * cached objects are never ahead of the database for long; a sync drops what it touched.
+ */
+public class BuildingCache {
+    static final int MAX_READS = 20_000;
+
+    private static BuildingCache instance;
+
+    private final int maxReads;
+    private final LinkedHashMap<Integer, Building> buildings = new LinkedHashMap<>(16, 0.75f, true);
+    private int readCount;
+    // Bumped by every invalidation, so a load that started before one is not cached
+    private long generation;
+
+    BuildingCache(int maxReads) {
+        this.maxReads = maxReads;
+    }
+
+    public static synchronized BuildingCache getInstance() {
+        if (instance == null) {
+            instance = new BuildingCache(MAX_READS);
+        }
+        return instance;
+    }
+
+    public synchronized Building get(int center) {
+        return buildings.get(center);
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Caches a building loaded when the cache was at {@code loadedGeneration} and returns
+     * the instance callers should use: an already cached one wins over a second load.
+     */
+    public synchronized Building put(Building building, long loadedGeneration) {
+        Building cached = buildings.get(building.getCenter());
+        if (cached != null) {
+            return cached;
+        }
+        if (loadedGeneration != generation) {
+            return building;
+        }
+        buildings.put(building.getCenter(), building);
+        readCount += building.getReadList().size();
+        evict();
+        return building;
+    }
+
+    public synchronized void invalidate(Collection<Integer> centers) {
+        generation++;
+        for (int center : centers) {
+            Building removed = buildings.remove(center);
+            if (removed != null) {
+                readCount -= removed.getReadList().size();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        buildings.clear();
+        readCount = 0;
+    }
+
+    synchronized int getReadCount() {
+        return readCount;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Integer, Building>> eldest = buildings.entrySet().iterator();
+        // The building just added is last and always stays, however large
+        while (readCount > maxReads && buildings.size() > 1) {
+            Building removed = eldest.next().getValue();
+            eldest.remove();
+            readCount -= removed.getReadList().size();
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package com.example.gasmeterreader.database;
 
 import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import com.example.gasmeterreader.entities.Building;
+import com.example.gasmeterreader.entities.BuildingSummary;
+import com.example.gasmeterreader.entities.BuildingWithReads;
 
 import java.util.List;
 @Dao
@@ -15,17 +19,42 @@ public interface BuildingDao {
     @Update
     void update(Building building);
 
-    @Query("SELECT * FROM building WHERE center = :center")
-    Building getBuildingByCenter(int center);
+    @Query("UPDATE building SET isComplete = :complete WHERE center = :center")
+    void setComplete(int center, boolean complete);
 
-    @Query("SELECT * FROM building")
-    List<Building> getAllBuildings();
+    @Transaction
+    @Query("SELECT * FROM building WHERE center = :center")
+    BuildingWithReads getBuildingByCenter(int center);
 
+    @Transaction
     @Query("SELECT * FROM building")
-    LiveData<List<Building>> getAllBuildingsLive();
-
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertList(List<Building> building);
+    List<BuildingWithReads> getAllBuildings();
+
+    /**
+     * Read counts are aggregated in SQL, so no Read objects are built for the list. Paged in
+     * center order; each page only counts the reads of its own buildings.
+     */
+    @Query("SELECT b.center, b.address, b.city, b.buildingNumber, b.isComplete, "
+            + "COUNT(r.user_id) AS totalReads, "
+            + "COALESCE(SUM(r.current_read != 0), 0) AS doneReads "
+            + "FROM building b LEFT JOIN read r ON r.center = b.center "
+            + "WHERE :incompleteOnly = 0 OR b.isComplete = 0 "
+            + "GROUP BY b.center ORDER BY b.center")
+    PagingSource<Integer, BuildingSummary> getBuildingSummaries(boolean incompleteOnly);
+
+    @Query("SELECT COUNT(*) FROM building WHERE :incompleteOnly = 0 OR isComplete = 0")
+    LiveData<Integer> getBuildingCountLive(boolean incompleteOnly);
+
+    /** Adds buildings that do not exist yet; replacing one would cascade to its reads. */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertNew(List<Building> buildings);
+
+    @Query("SELECT center FROM building")
+    List<Integer> getCenters();
+
+    @Query("UPDATE building SET isComplete = NOT EXISTS (SELECT 1 FROM read "
+            + "WHERE read.center = building.center AND read.current_read = 0) WHERE center IN (:centers)")
+    void refreshComplete(List<Integer> centers);
 
     @Query("DELETE FROM building")
     void clear();
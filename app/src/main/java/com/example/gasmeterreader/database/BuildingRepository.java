@@ -3,48 +3,188 @@ package com.example.gasmeterreader.database;
 import android.app.Application;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingSource;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.work.WorkManager;
 
 import com.example.gasmeterreader.api.Api;
+import com.example.gasmeterreader.api.ReadUploader;
+import com.example.gasmeterreader.api.UploadWorker;
 import com.example.gasmeterreader.entities.Building;
+import com.example.gasmeterreader.entities.BuildingSummary;
+import com.example.gasmeterreader.entities.BuildingWithReads;
 import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.entities.ReadSearchHit;
+import com.example.gasmeterreader.metrics.Tracer;
+import com.example.gasmeterreader.utils.FtsSearch;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class BuildingRepository {
+    // The best hits returned per search; they are ranked before this cuts them off
+    static final int SEARCH_RESULTS = 50;
+
+    /*
+     * About ten building rows fit on a screen. A page ahead is loaded before the user reaches
+     * it, and pages further than maxSize rows away are dropped back to placeholders, so a
+     * route of any size keeps at most that many summaries in memory. A fling past
+     * jumpThreshold rows skips the pages in between and loads where it lands.
+     */
+    public static final PagingConfig BUILDING_PAGING = new PagingConfig(
+            40,     // pageSize
+            40,     // prefetchDistance
+            true,   // enablePlaceholders, so the scrollbar spans the whole route
+            80,     // initialLoadSize
+            200,    // maxSize
+            120);   // jumpThreshold
+
     private final AppDatabase db;
-    private final Api api;
+    private final Application application;
+    private final BuildingCache cache = BuildingCache.getInstance();
+    // Only a sync needs it, so screens that never sync skip the HTTP stack
+    private Api api;
 
+    /** Use the shared one from {@link com.example.gasmeterreader.GasMeterApp#getRepository()}. */
     public BuildingRepository(Application application) {
+        this.application = application;
         db = AppDatabase.getInstance(application);
-        api = new Api(db.buildingDao(),application.getApplicationContext());
     }
 
-    public void updateBuilding(Building updatedBuilding) {
-        db.buildingDao().update(updatedBuilding);
+    private synchronized Api getApi() {
+        if (api == null) {
+            api = new Api(db, application);
+        }
+        return api;
     }
 
-    public void reloadBuilding(){
-        api.getReads();
+    /**
+     * Stores a single read's current value and the building's completion flag, without
+     * touching the building's other reads.
+     */
+    public CompletableFuture<Void> saveRead(Building building, Read read) {
+        return saveReads(building, Collections.singletonList(read));
     }
 
-    public LiveData<List<Building>> getAllBuildingsLive() {
-        return db.buildingDao().getAllBuildingsLive();
+    /** Like {@link #saveRead}, for several reads of the same building in one transaction. */
+    public CompletableFuture<Void> saveReads(Building building, Collection<Read> reads) {
+        int traceId = Tracer.beginAsync("saveReads");
+        // Captured now, the caller keeps editing the reads on the main thread
+        int[] userIds = new int[reads.size()];
+        double[] currentReads = new double[reads.size()];
+        boolean[] isRead = new boolean[reads.size()];
+        int i = 0;
+        for (Read read : reads) {
+            userIds[i] = read.getUser_id();
+            currentReads[i] = read.getCurrent_read();
+            isRead[i] = read.isRead();
+            i++;
+        }
+        int center = building.getCenter();
+        boolean complete = building.isComplete();
+        return CompletableFuture.runAsync(() -> {
+            db.runInTransaction(() -> {
+                for (int j = 0; j < userIds.length; j++) {
+                    db.readDao().updateCurrentRead(userIds[j], currentReads[j], isRead[j]);
+                }
+                db.buildingDao().setComplete(center, complete);
+            });
+            Tracer.endAsync("saveReads", traceId);
+            UploadWorker.schedule(application);
+        }, AppDatabase.databaseExecutor);
     }
 
-    public Building getBuildingByCenter(int center) {
-        return db.buildingDao().getBuildingByCenter(center);
+    /** Syncs the route with the server; completes exceptionally if the sync failed. */
+    public CompletableFuture<Void> reloadBuilding(){
+        return getApi().getReads();
     }
 
-    public void updateRead(Read read){
-        api.updateRead(read.getUser_id(),read);
+    /** One generation of the building list; Room invalidates it whenever buildings or reads change. */
+    public PagingSource<Integer, BuildingSummary> getBuildingSummaries(boolean incompleteOnly) {
+        return db.buildingDao().getBuildingSummaries(incompleteOnly);
     }
 
-    public void updateAllReadings(){
-        for (Building building : db.buildingDao().getAllBuildings()) {
-            for (Read read : building.getReadList()) {
-                api.updateRead(read.getUser_id(), read);
+    public LiveData<Integer> getBuildingCountLive(boolean incompleteOnly) {
+        return db.buildingDao().getBuildingCountLive(incompleteOnly);
+    }
+
+    /** The shared instance from {@link BuildingCache}, loaded from Room on a miss. */
+    public CompletableFuture<Building> getBuildingByCenter(int center) {
+        Building cached = cache.get(center);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        long generation = cache.getGeneration();
+        return CompletableFuture.supplyAsync(() -> {
+            BuildingWithReads building = db.buildingDao().getBuildingByCenter(center);
+            return building != null ? cache.put(building.toBuilding(), generation) : null;
+        }, AppDatabase.databaseExecutor);
+    }
+
+    /**
+     * Reads anywhere on the route whose serial, tenant, street, house, apartment or city
+     * starts with the words typed, best match first.
+     */
+    public CompletableFuture<List<ReadSearchHit>> searchReads(String text) {
+        SupportSQLiteQuery query = searchQuery(text, SEARCH_RESULTS);
+        if (query == null) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        return CompletableFuture.supplyAsync(() -> db.readSearchDao().search(query),
+                AppDatabase.databaseExecutor);
+    }
+
+    /**
+     * The best {@code limit} hits for {@code text}, or null if it has no word to search for.
+     * Each word adds, for every column it hits in a row, that column's weight from
+     * {@link FtsSearch#READ_WEIGHTS}. Which fields matched decides the order, not how common
+     * the word is on the route. A hit in a column is one more FTS lookup, of
+     * {@code column:word*}, and the hits are ordered by score before the limit applies.
+     */
+    static SupportSQLiteQuery searchQuery(String text, int limit) {
+        List<String> terms = FtsSearch.prefixTerms(text);
+        if (terms.isEmpty()) return null;
+        StringBuilder score = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        for (String term : terms) {
+            for (int column = 0; column < FtsSearch.READ_COLUMNS.length; column++) {
+                if (score.length() > 0) score.append(" + ");
+                score.append(FtsSearch.READ_WEIGHTS[column])
+                        .append(" * (read_fts.rowid IN (SELECT rowid FROM read_fts WHERE read_fts MATCH ?))");
+                args.add(FtsSearch.READ_COLUMNS[column] + ':' + term);
             }
         }
+        args.add(String.join(" ", terms));
+        args.add(limit);
+        return new SimpleSQLiteQuery("SELECT r.user_id, r.center, r.city, r.street, r.house_number, "
+                + "r.apartment, r.user_name, r.meter_id, r.isRead, " + score + " AS score "
+                + "FROM read_fts JOIN read r ON r.user_id = read_fts.rowid "
+                + "WHERE read_fts MATCH ? ORDER BY score DESC, r.user_id LIMIT ?", args.toArray());
+    }
+
+    /** Uploads the reads changed on this device now; follow it through {@link #getUploadProgress()}. */
+    public void updateAllReadings(){
+        UploadWorker.uploadNow(application);
+    }
+
+    public void scheduleUploadSweep() {
+        UploadWorker.schedulePeriodicSweep(application);
+    }
+
+    public LiveData<ReadUploader.Progress> getUploadProgress() {
+        return Transformations.map(
+                WorkManager.getInstance(application).getWorkInfosForUniqueWorkLiveData(UploadWorker.UNIQUE_NAME),
+                infos -> infos == null || infos.isEmpty() ? null : UploadWorker.progressOf(infos.get(0)));
+    }
+
+    public LiveData<Integer> getPendingUploadCount() {
+        return db.readDao().getDirtyCountLive();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.example.gasmeterreader.database;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.example.gasmeterreader.entities.Read;
+
+import java.util.List;
+@Dao
+public interface ReadDao {
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<Read> reads);
+
+    @Query("SELECT * FROM read WHERE center = :center")
+    List<Read> getReadsByCenter(int center);
+
+    @Query("SELECT * FROM read")
+    List<Read> getAllReads();
+
+    @Query("SELECT * FROM read WHERE user_id IN (:userIds)")
+    List<Read> getReadsByIds(List<Integer> userIds);
+
+    @Query("SELECT * FROM read WHERE dirty = 1")
+    List<Read> getDirtyReads();
+
+    @Query("SELECT COUNT(*) FROM read WHERE dirty = 1")
+    int getDirtyCount();
+
+    /** How many reads wait for upload, the depth of the outbox. */
+    @Query("SELECT COUNT(*) FROM read WHERE dirty = 1")
+    LiveData<Integer> getDirtyCountLive();
+
+    /** Stores a locally entered value and marks it as not yet uploaded. */
+    @Query("UPDATE read SET current_read = :currentRead, isRead = :isRead, dirty = 1, "
+            + "sync_version = sync_version + 1 WHERE user_id = :userId")
+    void updateCurrentRead(int userId, double currentRead, boolean isRead);
+
+    /** Clears the dirty flag, unless the read was edited again after the uploaded version. */
+    @Query("UPDATE read SET dirty = 0 WHERE user_id = :userId AND sync_version = :syncVersion")
+    void markSynced(int userId, int syncVersion);
+
+    @Query("DELETE FROM read")
+    void clear();
+}
@@ -0,0 +1,31 @@
+package com.example.gasmeterreader.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import com.example.gasmeterreader.entities.ReadFts;
+import com.example.gasmeterreader.entities.ReadSearchHit;
+
+import java.util.List;
+
+/** The route-wide search over {@link ReadFts}, written by the sync. */
+@Dao
+public interface ReadSearchDao {
+    /** FTS4 resolves REPLACE on the rowid, so a read synced again replaces its old text. */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<ReadFts> rows);
+
+    /**
+     * Runs a search from {@link BuildingRepository#searchQuery}, which scores and orders the
+     * hits in SQL; its score expression depends on the words typed, so it is built per search.
+     */
+    @RawQuery
+    List<ReadSearchHit> search(SupportSQLiteQuery query);
+
+    @Query("DELETE FROM read_fts")
+    void clear();
+}
@@ -0,0 +1,70 @@
+package com.example.gasmeterreader.metrics;
+
+import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.util.Locale;
+
+/**
+ * Feeds {@link StartupMetrics} from the platform clocks and logs every milestone under the
+ * "Startup" tag, so cold starts can be compared with {@code adb logcat -s Startup}.
+ */
+public class StartupTiming {
+    private static final String TAG = "Startup";
+
+    private StartupTiming() {
+    }
+
+    /** The uptime at which the process was forked, the start of a cold launch. */
+    public static long processStartUptime() {
+        return Process.getStartUptimeMillis();
+    }
+
+    /** Records the time from {@code startUptime} until now. */
+    public static void record(String milestone, long startUptime) {
+        long millis = SystemClock.uptimeMillis() - startUptime;
+        StartupMetrics.getInstance().record(milestone, millis);
+        log(milestone, millis);
+    }
+
+    /** Like {@link #record}, for milestones that only count the first time in a process. */
+    public static void recordOnce(String milestone, long startUptime) {
+        long millis = SystemClock.uptimeMillis() - startUptime;
+        if (StartupMetrics.getInstance().recordOnce(milestone, millis)) {
+            log(milestone, millis);
+        }
+    }
+
+    /**
+     * Runs {@code action} once the activity's first frame has been drawn. The action is
+     * posted to the front of the queue from the first draw, so it runs right after the
+     * frame is handed to the display and before anything else queued behind it.
+     */
+    public static void onFirstFrame(Activity activity, Runnable action) {
+        View decorView = activity.getWindow().getDecorView();
+        Handler handler = new Handler(Looper.getMainLooper());
+        ViewTreeObserver.OnDrawListener listener = new ViewTreeObserver.OnDrawListener() {
+            private boolean drawn;
+
+            @Override
+            public void onDraw() {
+                if (drawn) return;
+                drawn = true;
+                handler.postAtFrontOfQueue(action);
+                // Listeners cannot be removed from inside onDraw
+                handler.post(() -> decorView.getViewTreeObserver().removeOnDrawListener(this));
+            }
+        };
+        decorView.getViewTreeObserver().addOnDrawListener(listener);
+    }
+
+    private static void log(String milestone, long millis) {
+        Log.i(TAG, String.format(Locale.US, "%s %d ms", milestone, millis));
+    }
+}
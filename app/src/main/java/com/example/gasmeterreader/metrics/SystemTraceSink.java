@@ -0,0 +1,31 @@
+package com.example.gasmeterreader.metrics;
+
+import android.os.Build;
+import android.os.Trace;
+
+/** Forwards {@link Tracer} events to android.os.Trace so they show up in system traces. */
+public class SystemTraceSink implements Tracer.Sink {
+    @Override
+    public void beginSection(String name) {
+        Trace.beginSection(name);
+    }
+
+    @Override
+    public void endSection() {
+        Trace.endSection();
+    }
+
+    @Override
+    public void beginAsync(String name, int id) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.beginAsyncSection(name, id);
+        }
+    }
+
+    @Override
+    public void endAsync(String name, int id) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(name, id);
+        }
+    }
+}
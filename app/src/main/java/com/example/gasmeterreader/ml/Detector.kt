@@ -2,7 +2,7 @@ package com.example.gasmeterreader.ml
 
 import android.content.Context
 import android.graphics.Bitmap
-import android.os.SystemClock
+import com.example.gasmeterreader.metrics.Tracer
 import org.tensorflow.lite.DataType
 import org.tensorflow.lite.Interpreter
 import org.tensorflow.lite.gpu.CompatibilityList
@@ -17,10 +17,10 @@ import org.tensorflow.lite.support.tensorbuffer.TensorBuffer
 
 class Detector(
     context: Context,
-    modelPath: String,
+    private val modelPath: String,
     inputList: List<String>,
     private val detectorListener: DetectorListener,
-) {
+) : InferenceBackend {
 
     private var interpreter: Interpreter
     private var labels = mutableListOf<String>()
@@ -29,6 +29,11 @@ class Detector(
     private var tensorHeight = 0
     private var numChannel = 0
     private var numElements = 0
+    private val postProcessor: DetectionPostProcessor
+    private val traceName = "Detector.detect $modelPath"
+
+    /** When set, every raw output tensor is appended to this recording. */
+    var recorder: TensorRecording.Writer? = null
 
     private val imageProcessor = ImageProcessor.Builder()
         .add(NormalizeOp(INPUT_MEAN, INPUT_STANDARD_DEVIATION))
@@ -70,121 +75,52 @@ class Detector(
         }
 
         labels = inputList.toMutableList()
+        postProcessor = DetectionPostProcessor(labels, numChannel, numElements)
     }
 
-    fun close() {
+    override fun close() {
         interpreter.close()
     }
 
-    fun detect(frame: Bitmap) {
+    override fun detect(frame: Bitmap?) {
+        if (frame == null) return
         if (tensorWidth == 0) return
         if (tensorHeight == 0) return
         if (numChannel == 0) return
         if (numElements == 0) return
 
-        var inferenceTime = SystemClock.uptimeMillis()
-        val resizedBitmap = Bitmap.createScaledBitmap(frame, tensorWidth, tensorHeight, false)
-        val tensorImage = TensorImage(INPUT_IMAGE_TYPE)
-        tensorImage.load(resizedBitmap)
-        val processedImage = imageProcessor.process(tensorImage)
-        val imageBuffer = processedImage.buffer
+        val traced = Tracer.beginSection(traceName)
+        val start = System.nanoTime()
+        val bestBoxes = try {
+            val resizedBitmap = Bitmap.createScaledBitmap(frame, tensorWidth, tensorHeight, false)
+            val tensorImage = TensorImage(INPUT_IMAGE_TYPE)
+            tensorImage.load(resizedBitmap)
+            val processedImage = imageProcessor.process(tensorImage)
+            val imageBuffer = processedImage.buffer
 
-        val output = TensorBuffer.createFixedSize(intArrayOf(1, numChannel, numElements), OUTPUT_IMAGE_TYPE)
-        interpreter.run(imageBuffer, output.buffer)
+            val output = TensorBuffer.createFixedSize(intArrayOf(1, numChannel, numElements), OUTPUT_IMAGE_TYPE)
+            interpreter.run(imageBuffer, output.buffer)
 
-        val bestBoxes = bestBox(output.floatArray)
-        inferenceTime = SystemClock.uptimeMillis() - inferenceTime
+            val outputArray = output.floatArray
+            recorder?.record(modelPath, numChannel, numElements, outputArray)
 
-        if (bestBoxes == null) {
-            detectorListener.onEmptyDetect()
-            return
-        }
-        detectorListener.onDetect(bestBoxes, inferenceTime)
-    }
-
-    private fun bestBox(array: FloatArray) : List<BoundingBox>? {
-
-        val boundingBoxes = mutableListOf<BoundingBox>()
-
-        for (c in 0 until numElements) {
-            var maxConf = CONFIDENCE_THRESHOLD
-            var maxIdx = -1
-            var j = 4
-            var arrayIdx = c + numElements * j
-            while (j < numChannel){
-                if (array[arrayIdx] > maxConf) {
-                    maxConf = array[arrayIdx]
-                    maxIdx = j - 4
-                }
-                j++
-                arrayIdx += numElements
-            }
-
-            if (maxConf > CONFIDENCE_THRESHOLD) {
-                val clsName = labels[maxIdx]
-                val cx = array[c] // 0
-                val cy = array[c + numElements] // 1
-                val w = array[c + numElements * 2]
-                val h = array[c + numElements * 3]
-                val x1 = cx - (w/2F)
-                val y1 = cy - (h/2F)
-                val x2 = cx + (w/2F)
-                val y2 = cy + (h/2F)
-                if (x1 < 0F || x1 > 1F) continue
-                if (y1 < 0F || y1 > 1F) continue
-                if (x2 < 0F || x2 > 1F) continue
-                if (y2 < 0F || y2 > 1F) continue
-
-                boundingBoxes.add(
-                    BoundingBox(
-                        x1 = x1, y1 = y1, x2 = x2, y2 = y2,
-                        cx = cx, cy = cy, w = w, h = h,
-                        cnf = maxConf, cls = maxIdx, clsName = clsName
-                    )
-                )
-            }
+            postProcessor.bestBox(outputArray)
+        } finally {
+            Tracer.endSection(traceName, traced)
         }
+        val inferenceTimeNanos = System.nanoTime() - start
 
-        if (boundingBoxes.isEmpty()) return null
-        return applyNMS(boundingBoxes)
-    }
-
-    private fun applyNMS(boxes: List<BoundingBox>) : MutableList<BoundingBox> {
-        val sortedBoxes = boxes.sortedByDescending { it.cnf }.toMutableList()
-        val selectedBoxes = mutableListOf<BoundingBox>()
-
-        while(sortedBoxes.isNotEmpty()) {
-            val first = sortedBoxes.first()
-            selectedBoxes.add(first)
-            sortedBoxes.remove(first)
-
-            val iterator = sortedBoxes.iterator()
-            while (iterator.hasNext()) {
-                val nextBox = iterator.next()
-                val iou = calculateIoU(first, nextBox)
-                if (iou >= IOU_THRESHOLD) {
-                    iterator.remove()
-                }
-            }
+        if (bestBoxes == null) {
+            detectorListener.onEmptyDetect(inferenceTimeNanos)
+            return
         }
-
-        return selectedBoxes
-    }
-
-    private fun calculateIoU(box1: BoundingBox, box2: BoundingBox): Float {
-        val x1 = maxOf(box1.x1, box2.x1)
-        val y1 = maxOf(box1.y1, box2.y1)
-        val x2 = minOf(box1.x2, box2.x2)
-        val y2 = minOf(box1.y2, box2.y2)
-        val intersectionArea = maxOf(0F, x2 - x1) * maxOf(0F, y2 - y1)
-        val box1Area = box1.w * box1.h
-        val box2Area = box2.w * box2.h
-        return intersectionArea / (box1Area + box2Area - intersectionArea)
+        detectorListener.onDetect(bestBoxes, inferenceTimeNanos)
     }
 
+    /** [inferenceTimeNanos] covers preprocessing, the model run and post-processing, in nanoseconds. */
     interface DetectorListener {
-        fun onEmptyDetect()
-        fun onDetect(boundingBoxes: List<BoundingBox>, inferenceTime: Long)
+        fun onEmptyDetect(inferenceTimeNanos: Long)
+        fun onDetect(boundingBoxes: List<BoundingBox>, inferenceTimeNanos: Long)
     }
 
     companion object {
@@ -192,7 +128,5 @@ class Detector(
         private const val INPUT_STANDARD_DEVIATION = 255f
         private val INPUT_IMAGE_TYPE = DataType.FLOAT32
         private val OUTPUT_IMAGE_TYPE = DataType.FLOAT32
-        private const val CONFIDENCE_THRESHOLD = 0.3F
-        private const val IOU_THRESHOLD = 0.4F
     }
 }
\ No newline at end of file
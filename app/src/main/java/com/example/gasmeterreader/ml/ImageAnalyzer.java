@@ -13,48 +13,74 @@ import android.graphics.RectF;
 import androidx.annotation.NonNull;
 
 import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.metrics.PipelineStats;
+import com.example.gasmeterreader.metrics.Tracer;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
 public class ImageAnalyzer {
+    public static final String BOX_MODEL = "boxDetection.tflite";
+    public static final String DIGITS_DATA_MODEL = "digitsDetectionData.tflite";
+
     private String data = "";
-    private final Detector boxDetector;
-    private final Detector digitsDetectorData;
+    private final InferenceBackend boxDetector;
+    private final InferenceBackend digitsDetectorData;
     private Bitmap originalBitmap;
     private Bitmap greyBackImage;
     private Read read;
     private int errorCount = 0;
+    private TensorRecording.Writer recorder;
+    private final PipelineStats stats = PipelineStats.getInstance();
+
+    public interface BackendFactory {
+        InferenceBackend create(String modelPath, List<String> labels, Detector.DetectorListener listener);
+    }
 
     public ImageAnalyzer(Context context){
+        this((modelPath, labels, listener) -> new Detector(context, modelPath, labels, listener));
+    }
+
+    public ImageAnalyzer(BackendFactory backendFactory){
         Detector.DetectorListener boxListener = new Detector.DetectorListener() {
             @Override
-            public void onEmptyDetect() {
+            public void onEmptyDetect(long inferenceTimeNanos) {
+                stats.record(PipelineStats.BOX_INFERENCE, inferenceTimeNanos);
                 deleteDataDetect();
             }
 
             @Override
-            public void onDetect(@NonNull List<BoundingBox> boundingBoxes, long inferenceTime) {
+            public void onDetect(@NonNull List<BoundingBox> boundingBoxes, long inferenceTimeNanos) {
+                stats.record(PipelineStats.BOX_INFERENCE, inferenceTimeNanos);
                 cropOriginalBitmap(boundingBoxes);
             }
         };
 
         Detector.DetectorListener dataDigitsListener = new Detector.DetectorListener() {
             @Override
-            public void onEmptyDetect() {
+            public void onEmptyDetect(long inferenceTimeNanos) {
+                stats.record(PipelineStats.DIGITS_INFERENCE, inferenceTimeNanos);
                 deleteDataDetect();
             }
 
             @Override
-            public void onDetect(@NonNull List<BoundingBox> boundingBoxes, long inferenceTime) {
-                createStringFromDetection(boundingBoxes, "data");
+            public void onDetect(@NonNull List<BoundingBox> boundingBoxes, long inferenceTimeNanos) {
+                stats.record(PipelineStats.DIGITS_INFERENCE, inferenceTimeNanos);
+                boolean traced = Tracer.beginSection("decode");
+                try {
+                    long start = System.nanoTime();
+                    createStringFromDetection(boundingBoxes, "data");
+                    stats.record(PipelineStats.DECODE, System.nanoTime() - start);
+                } finally {
+                    Tracer.endSection("decode", traced);
+                }
             }
         };
 
-        boxDetector = new Detector(context,"boxDetection.tflite",
+        boxDetector = backendFactory.create(BOX_MODEL,
                 Arrays.asList("data", "id"), boxListener);
-        digitsDetectorData = new Detector(context, "digitsDetectionData.tflite",
+        digitsDetectorData = backendFactory.create(DIGITS_DATA_MODEL,
                 Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "dot"), dataDigitsListener);
 
     }
@@ -64,9 +90,36 @@ public class ImageAnalyzer {
     }
 
     public void detect(Bitmap bitmap){
-        originalBitmap = convertToGrayscale(bitmap);
-        greyBackImage = placeOnGrayCanvas(originalBitmap);
-        boxDetector.detect(greyBackImage);
+        boolean traced = Tracer.beginSection("ImageAnalyzer.detect");
+        try {
+            if (recorder != null) {
+                recorder.beginFrame(System.nanoTime());
+            }
+            // Replayed frames carry no pixels, the backends already hold their outputs
+            if (bitmap != null) {
+                long start = System.nanoTime();
+                originalBitmap = convertToGrayscale(bitmap);
+                long grayscaleEnd = System.nanoTime();
+                greyBackImage = placeOnGrayCanvas(originalBitmap);
+                stats.record(PipelineStats.GRAYSCALE, grayscaleEnd - start);
+                stats.record(PipelineStats.LETTERBOX, System.nanoTime() - grayscaleEnd);
+            } else {
+                originalBitmap = null;
+                greyBackImage = null;
+            }
+            boxDetector.detect(greyBackImage);
+        } finally {
+            Tracer.endSection("ImageAnalyzer.detect", traced);
+        }
+    }
+
+    public void setRecorder(TensorRecording.Writer recorder){
+        this.recorder = recorder;
+        for (InferenceBackend backend : Arrays.asList(boxDetector, digitsDetectorData)) {
+            if (backend instanceof Detector) {
+                ((Detector) backend).setRecorder(recorder);
+            }
+        }
     }
 
     public void setRead(Read read){
@@ -74,24 +127,29 @@ public class ImageAnalyzer {
     }
 
     public void cropOriginalBitmap(List<BoundingBox> boundingBoxes){
-        RectF bestDataBox = new RectF();
-        float maxCondData = 0f;
+        BoundingBox bestDataBox = null;
         for (BoundingBox b : boundingBoxes){
             if(b.getClsName().equals("data")) {
-                if (b.getCnf() > maxCondData){
-                    maxCondData = b.getCnf();
-                    bestDataBox = new RectF(b.getX1() * greyBackImage.getWidth(),
-                            b.getY1() * greyBackImage.getHeight(),
-                            b.getX2() * greyBackImage.getWidth(),
-                            b.getY2()* greyBackImage.getHeight());
+                if (bestDataBox == null || b.getCnf() > bestDataBox.getCnf()){
+                    bestDataBox = b;
                 }
             }
         }
-        if (maxCondData != 0f) {
-            Bitmap resultData = cropBitmap(originalBitmap,
-                    mapToOriginalImage(bestDataBox, originalBitmap.getWidth(), originalBitmap.getHeight()));
-            digitsDetectorData.detect(resultData);
+        if (bestDataBox == null) return;
+
+        if (originalBitmap == null) {
+            digitsDetectorData.detect(null);
+            return;
         }
+        long start = System.nanoTime();
+        RectF dataRect = new RectF(bestDataBox.getX1() * greyBackImage.getWidth(),
+                bestDataBox.getY1() * greyBackImage.getHeight(),
+                bestDataBox.getX2() * greyBackImage.getWidth(),
+                bestDataBox.getY2()* greyBackImage.getHeight());
+        Bitmap resultData = cropBitmap(originalBitmap,
+                mapToOriginalImage(dataRect, originalBitmap.getWidth(), originalBitmap.getHeight()));
+        stats.record(PipelineStats.CROP, System.nanoTime() - start);
+        digitsDetectorData.detect(resultData);
     }
 
     public void createStringFromDetection(List<BoundingBox> boundingBoxes, String type) {
@@ -0,0 +1,18 @@
+package com.example.gasmeterreader.ml
+
+import android.graphics.Bitmap
+
+/**
+ * One model stage of the analyzer pipeline. Results are delivered to the
+ * [Detector.DetectorListener] the backend was created with.
+ *
+ * [Detector] runs the TFLite model on the device, [ReplayBackend] serves output tensors
+ * captured earlier so the pipeline can run on a plain JVM.
+ */
+interface InferenceBackend {
+
+    /** [frame] is null when the pipeline is replaying a recording and has no pixels. */
+    fun detect(frame: Bitmap?)
+
+    fun close()
+}
@@ -0,0 +1,54 @@
+package com.example.gasmeterreader.ml
+
+import android.graphics.Bitmap
+
+/**
+ * Serves the output tensors recorded for [modelPath] in [recording] instead of running
+ * the model. The frame passed to [detect] is ignored; the recording's current position
+ * decides which output is returned, so every backend sharing a recording stays on the
+ * same frame. Advance the recording before handing each frame to the analyzer.
+ */
+class ReplayBackend(
+    private val recording: TensorRecording,
+    private val modelPath: String,
+    labels: List<String>,
+    private val detectorListener: Detector.DetectorListener,
+) : InferenceBackend {
+
+    private val postProcessor: DetectionPostProcessor?
+    private val output: FloatArray
+
+    init {
+        val stream = recording.stream(modelPath)
+        postProcessor = stream?.let { DetectionPostProcessor(labels, it.numChannel, it.numElements) }
+        output = FloatArray(stream?.let { it.numChannel * it.numElements } ?: 0)
+    }
+
+    override fun detect(frame: Bitmap?) {
+        val start = System.nanoTime()
+        if (postProcessor == null || !recording.fillOutput(modelPath, output)) {
+            detectorListener.onEmptyDetect(System.nanoTime() - start)
+            return
+        }
+
+        val bestBoxes = postProcessor.bestBox(output)
+        val inferenceTimeNanos = System.nanoTime() - start
+
+        if (bestBoxes == null) {
+            detectorListener.onEmptyDetect(inferenceTimeNanos)
+            return
+        }
+        detectorListener.onDetect(bestBoxes, inferenceTimeNanos)
+    }
+
+    override fun close() {
+    }
+
+    companion object {
+        /** Builds analyzer backends that replay [recording], one stream per model. */
+        @JvmStatic
+        fun factory(recording: TensorRecording) = ImageAnalyzer.BackendFactory { modelPath, labels, listener ->
+            ReplayBackend(recording, modelPath, labels, listener)
+        }
+    }
+}
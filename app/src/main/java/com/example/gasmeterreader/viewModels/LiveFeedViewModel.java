@@ -3,27 +3,39 @@ package com.example.gasmeterreader.viewModels;
 
 import android.app.Application;
 import android.graphics.Bitmap;
-import android.os.Handler;
-import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
 
 import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.example.gasmeterreader.GasMeterApp;
 import com.example.gasmeterreader.R;
 import com.example.gasmeterreader.database.BuildingRepository;
 import com.example.gasmeterreader.entities.Building;
 import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.metrics.PipelineStats;
+import com.example.gasmeterreader.metrics.StartupMetrics;
+import com.example.gasmeterreader.metrics.StartupTiming;
+import com.example.gasmeterreader.ml.DetectionConsensus;
 import com.example.gasmeterreader.ml.ImageAnalyzer;
-import com.example.gasmeterreader.utils.StringsUtils;
+import com.example.gasmeterreader.utils.ReadCursor;
+import com.example.gasmeterreader.utils.ReadNavigator;
+import com.example.gasmeterreader.utils.ReadSearchIndex;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * The camera screen. Frames are analyzed on the camera thread, which sees the screen only
+ * through an immutable {@link FeedState} and hands back an immutable {@link FeedResult};
+ * neither side touches the other's objects. Results are shown at most once per display
+ * frame, the newest one winning, however fast the analyzer runs.
+ */
 public class LiveFeedViewModel extends AndroidViewModel {
 
     private final MutableLiveData<Boolean> isDetected = new MutableLiveData<>(false);
@@ -34,20 +46,47 @@ public class LiveFeedViewModel extends AndroidViewModel {
     private final MutableLiveData<Integer> listPlace = new MutableLiveData<>(0);
     private final MutableLiveData<Integer> errorCount = new MutableLiveData<>(0);
     private final MutableLiveData<Boolean> isPaused = new MutableLiveData<>(false);
+    private final MutableLiveData<Boolean> analyzerFailed = new MutableLiveData<>(false);
 
-    private final HashMap<String, Integer> detectionCounterData = new HashMap<>();
-    private final int detectionThreshold = 3;
     private Building building;
+    // Shared with the reading screen through the building; null until it loads
+    private ReadNavigator navigator;
+    // This screen's own position, so the reading screen moving never moves it
+    private ReadCursor cursor;
 
-    private final ImageAnalyzer imageAnalyzer;
-    private final ExecutorService cameraExecutor;
+    // Written on the main thread, read by the camera thread before each frame
+    private final AtomicReference<FeedState> state = new AtomicReference<>(new FeedState(null, false, false, 0, 0));
+    // The newest result not shown yet; a frame callback is posted when it goes from null
+    private final AtomicReference<FeedResult> pendingResult = new AtomicReference<>();
+    private final Choreographer choreographer = Choreographer.getInstance();
+    private final Choreographer.FrameCallback showResult = frameTimeNanos -> showPendingResult();
+
+    // Camera thread only
+    private final DetectionConsensus detectionConsensus = new DetectionConsensus(DetectionConsensus.DETECTION_THRESHOLD);
+    private int votingGeneration;
+    private int errorGeneration;
+    private boolean analyzed;
+
+    // Null until the shared analyzer has loaded; frames before that are skipped
+    private volatile ImageAnalyzer imageAnalyzer;
     private final BuildingRepository buildingRepository;
+    private final PipelineStats stats = PipelineStats.getInstance();
+    private final long createdUptime = SystemClock.uptimeMillis();
 
     public LiveFeedViewModel(@NonNull Application application) {
         super(application);
-        this.imageAnalyzer = new ImageAnalyzer(application);
-        this.cameraExecutor = Executors.newSingleThreadExecutor();
-        this.buildingRepository = new BuildingRepository(application);
+        GasMeterApp app = GasMeterApp.from(application);
+        this.buildingRepository = app.getRepository();
+        app.getImageAnalyzer().thenAcceptAsync(analyzer -> {
+            // Left over from the last time the screen was open
+            analyzer.deleteDataDetect();
+            analyzer.resetError();
+            imageAnalyzer = analyzer;
+        }, ContextCompat.getMainExecutor(application)).exceptionally(failure -> {
+            // Frames stay skipped; values can still be typed in
+            analyzerFailed.postValue(true);
+            return null;
+        });
     }
 
     public LiveData<Boolean> getIsDetected() { return isDetected; }
@@ -57,63 +96,102 @@ public class LiveFeedViewModel extends AndroidViewModel {
     public LiveData<Integer> getListPlace() { return listPlace; }
     public LiveData<Integer> getErrorCount() { return errorCount; }
     public LiveData<List<Read>> getReadList() { return reads; }
+    /** The building's search over {@link #getReadList()}, or null before it loads. */
+    public ReadSearchIndex getSearchIndex() { return building != null ? building.getSearchIndex() : null; }
     public LiveData<Boolean> getIsPaused() { return isPaused;}
+    /** True once the models failed to load; the screen can only take typed values then. */
+    public LiveData<Boolean> getAnalyzerFailed() { return analyzerFailed; }
 
-    public void processImage(Bitmap rotatedBitmap) {
-        if (Boolean.FALSE.equals(isDetected.getValue()) && getListPlace().getValue() != null) {
-            imageAnalyzer.detect(rotatedBitmap);
-            imageAnalyzer.setRead(Objects.requireNonNull(reads.getValue()).get(getListPlace().getValue()));
-            updateResultTexts(imageAnalyzer.getData());
-            rotatedBitmap.recycle();
-        }
+    /**
+     * Whether the next frame would be analyzed, so the camera thread can drop it before
+     * converting it. Safe from any thread.
+     */
+    public boolean isAnalyzing() {
+        return imageAnalyzer != null && state.get().isAnalyzing();
     }
 
-    private void updateResultTexts(final String dataResult) {
-        new Handler(Looper.getMainLooper()).post(() -> {
-            if (!dataResult.isEmpty()) {
-                StringsUtils.addString(dataResult, detectionCounterData);
+    /**
+     * Runs on the camera thread. Returns false if the frame was skipped, for the caller to
+     * count. {@code rotatedBitmap} is recycled either way.
+     */
+    public boolean processImage(Bitmap rotatedBitmap) {
+        try {
+            ImageAnalyzer imageAnalyzer = this.imageAnalyzer;
+            FeedState current = state.get();
+            if (imageAnalyzer == null || !current.isAnalyzing()) return false;
+            if (current.generation != votingGeneration) {
+                votingGeneration = current.generation;
+                detectionConsensus.clear();
+                imageAnalyzer.deleteDataDetect();
+            }
+            if (current.errorGeneration != errorGeneration) {
+                errorGeneration = current.errorGeneration;
+                imageAnalyzer.resetError();
             }
+            imageAnalyzer.setRead(current.read);
+            imageAnalyzer.detect(rotatedBitmap);
 
-            if (StringsUtils.getMaxCount(detectionCounterData) >= detectionThreshold){
-                isDetected.setValue(Boolean.TRUE);
+            long start = System.nanoTime();
+            boolean accepted = detectionConsensus.add(imageAnalyzer.getData());
+            String mostFrequent = detectionConsensus.getMostFrequent();
+            long decided = System.nanoTime();
+            stats.record(PipelineStats.CONSENSUS, decided - start);
+            post(new FeedResult(current.generation, current.errorGeneration, accepted, mostFrequent,
+                    imageAnalyzer.getErrorCount(), decided));
+
+            if (!analyzed) {
+                analyzed = true;
+                StartupTiming.record(StartupMetrics.LIVE_FEED_FIRST_ANALYSIS, createdUptime);
             }
-            updateDetectionStatus();
-            errorCount.setValue(imageAnalyzer.getErrorCount());
-        });
+            return true;
+        } finally {
+            rotatedBitmap.recycle();
+        }
     }
 
-    private void updateDetectionStatus() {
-        new Handler(Looper.getMainLooper()).post(() -> {
-            detectionStatusIcon.setValue(
-                    Boolean.TRUE.equals(isDetected.getValue()) ?
-                            R.drawable.ic_greenv : R.drawable.ic_redx
-            );
+    private void post(FeedResult result) {
+        if (pendingResult.getAndSet(result) == null) {
+            choreographer.postFrameCallback(showResult);
+        }
+    }
 
-            dataResultText.setValue(String.format("%s",
-                    StringsUtils.getMostFrequentString(detectionCounterData)));
+    private void showPendingResult() {
+        FeedResult result = pendingResult.getAndSet(null);
+        if (result == null) return;
+        FeedState current = state.get();
+        // Analyzed for a read the screen has moved away from, or after one was accepted
+        if (result.generation != current.generation || !current.isAnalyzing()) return;
 
-        });
+        dataResultText.setValue(String.valueOf(result.mostFrequent));
+        detectionStatusIcon.setValue(result.accepted ? R.drawable.ic_greenv : R.drawable.ic_redx);
+        if (result.errorGeneration == current.errorGeneration) {
+            errorCount.setValue(result.errorCount);
+        }
+        if (result.accepted) {
+            setDetected(true);
+        }
+        // Includes the wait for the next frame
+        stats.record(PipelineStats.UI_UPDATE, System.nanoTime() - result.decidedNanos);
     }
 
     public void setReadManual(String read){
         dataResultText.setValue(read);
-        isDetected.setValue(Boolean.TRUE);
-        isDetected.setValue(Boolean.FALSE);
+        setDetected(true);
+        setDetected(false);
     }
 
     public void nextRead() {
-        detectionCounterData.clear();
-        isDetected.setValue(false);
-        imageAnalyzer.deleteDataDetect();
+        setDetected(false);
         incrementListPlace();
-        if(getListPlace().getValue() != null) {
-            imageAnalyzer.setRead(Objects.requireNonNull(reads.getValue()).get(getListPlace().getValue()));
-        }
+        // Also at the last read, which is voted on again
+        restartVotes();
     }
 
     public void resetError(){
         errorCount.setValue(0);
-        imageAnalyzer.resetError();
+        FeedState current = state.get();
+        state.set(new FeedState(current.read, current.detected, current.paused,
+                current.generation, current.errorGeneration + 1));
     }
 
     public void toggleFlash() {
@@ -122,55 +200,127 @@ public class LiveFeedViewModel extends AndroidViewModel {
     }
 
     public void setPaused(boolean paused) {
+        FeedState current = state.get();
+        state.set(new FeedState(current.read, current.detected, paused,
+                current.generation, current.errorGeneration));
         isPaused.setValue(paused);
     }
 
     public void setBuilding(int center){
-        building = buildingRepository.getBuildingByCenter(center);
-        reads.setValue(building.getReadList());
-        if(listPlace.getValue() != null) {
-            while (Objects.requireNonNull(reads.getValue()).get(listPlace.getValue()).getCurrent_read() != 0) {
-                incrementListPlace();
+        buildingRepository.getBuildingByCenter(center).thenAcceptAsync(loaded -> {
+            if (loaded == null) return;
+            building = loaded;
+            navigator = building.getNavigator();
+            cursor = new ReadCursor(navigator);
+            reads.setValue(navigator.getReads());
+            if (listPlace.getValue() != null && navigator.size() > 0) {
+                // The first read still to do from here on, or the last read if none is
+                int unread = navigator.nextUnread(listPlace.getValue());
+                moveTo(unread != -1 ? unread : navigator.size() - 1);
             }
-        }
+        }, ContextCompat.getMainExecutor(getApplication()));
     }
 
     public void incrementListPlace(){
-        if (listPlace.getValue() != null && listPlace.getValue() < Objects.requireNonNull(reads.getValue()).size() - 1) {
-            listPlace.setValue(listPlace.getValue() + 1);
+        if (cursor != null && cursor.getNext() != null) {
+            moveTo(cursor.getCurrentIndex() + 1);
         }
     }
 
+    private void moveTo(int position) {
+        cursor.moveTo(position);
+        listPlace.setValue(position);
+        // Votes for one meter never count towards another
+        restartVotes();
+    }
+
     public void enterRead(){
-        if(listPlace.getValue() != null) {
-            List<Read> temp = reads.getValue();
-            assert temp != null;
-            if(temp.get(listPlace.getValue()).getCurrent_read() == 0) {
-                temp.get(listPlace.getValue()).setCurrent_read(Double.parseDouble(
-                        Objects.requireNonNull(dataResultText.getValue())));
-                temp.get(listPlace.getValue()).wasRead();
-                reads.setValue(temp);
-                building.setReadList(temp);
-                buildingRepository.updateBuilding(building);
-            } else{
-                incrementListPlace();
-            }
+        Read read = cursor != null ? cursor.getCurrent() : null;
+        if (read == null) return;
+        if (read.getCurrent_read() == 0) {
+            read.setCurrent_read(Double.parseDouble(Objects.requireNonNull(dataResultText.getValue())));
+            read.wasRead();
+            navigator.update(read);
+            building.setComplete(navigator.isComplete());
+            buildingRepository.saveRead(building, read);
+        } else {
+            incrementListPlace();
+        }
+    }
+
+    public void selectRead(Read read) {
+        if (navigator != null) {
+            setListPlace(navigator.indexOf(read));
         }
     }
 
     public void setListPlace(int position) {
-        if (position >= 0 && position < Objects.requireNonNull(reads.getValue()).size()) {
-            listPlace.setValue(position);
-            detectionCounterData.clear();
-            isDetected.setValue(false);
-            imageAnalyzer.deleteDataDetect();
-            imageAnalyzer.setRead(Objects.requireNonNull(reads.getValue()).get(position));
+        if (navigator != null && position >= 0 && position < navigator.size()) {
+            setDetected(false);
+            moveTo(position);
         }
     }
 
+    private void setDetected(boolean detected) {
+        FeedState current = state.get();
+        state.set(new FeedState(current.read, detected, current.paused,
+                current.generation, current.errorGeneration));
+        isDetected.setValue(detected);
+    }
+
+    /** Publishes the current read; the camera thread clears its votes before the next frame. */
+    private void restartVotes() {
+        FeedState current = state.get();
+        state.set(new FeedState(cursor != null ? cursor.getCurrent() : null, current.detected,
+                current.paused, current.generation + 1, current.errorGeneration));
+    }
+
     @Override
     protected void onCleared() {
         super.onCleared();
-        cameraExecutor.shutdown();
+        choreographer.removeFrameCallback(showResult);
+    }
+
+    /** What the camera thread needs from the screen. Only the main thread replaces it. */
+    private static final class FeedState {
+        final Read read;
+        final boolean detected;
+        final boolean paused;
+        // Bumped when the votes so far no longer apply
+        final int generation;
+        // Bumped when the analyzer's error count is reset
+        final int errorGeneration;
+
+        FeedState(Read read, boolean detected, boolean paused, int generation, int errorGeneration) {
+            this.read = read;
+            this.detected = detected;
+            this.paused = paused;
+            this.generation = generation;
+            this.errorGeneration = errorGeneration;
+        }
+
+        boolean isAnalyzing() {
+            return read != null && !detected && !paused;
+        }
+    }
+
+    /** One analyzed frame, as the screen shows it. */
+    private static final class FeedResult {
+        final int generation;
+        final int errorGeneration;
+        final boolean accepted;
+        final String mostFrequent;
+        final int errorCount;
+        final long decidedNanos;
+
+        FeedResult(int generation, int errorGeneration, boolean accepted, String mostFrequent,
+                   int errorCount, long decidedNanos) {
+            this.generation = generation;
+            this.errorGeneration = errorGeneration;
+            this.accepted = accepted;
+            this.mostFrequent = mostFrequent;
+            this.errorCount = errorCount;
+            this.decidedNanos = decidedNanos;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,39 +1,94 @@
 package com.example.gasmeterreader.viewModels;
 
 import android.app.Application;
+import android.widget.Toast;
 import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.Pager;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+import androidx.paging.PagingSource;
+import com.example.gasmeterreader.GasMeterApp;
+import com.example.gasmeterreader.R;
+import com.example.gasmeterreader.api.ReadUploader;
 import com.example.gasmeterreader.database.BuildingRepository;
-import com.example.gasmeterreader.entities.Building;
+import com.example.gasmeterreader.entities.BuildingSummary;
+import com.example.gasmeterreader.entities.ReadSearchHit;
+import java.util.Collections;
 import java.util.List;
 
 public class MainViewModel extends AndroidViewModel {
     private final BuildingRepository buildingRepository;
-    private final MutableLiveData<List<Building>> buildingsLiveData;
+    private final MutableLiveData<Boolean> incompleteOnly = new MutableLiveData<>(false);
+    private final LiveData<PagingData<BuildingSummary>> buildingsLiveData;
+    private final LiveData<Integer> buildingCount;
+    // Guarded by this: the pager asks for a new source on a background thread
+    private boolean incompleteOnlyFilter;
+    private PagingSource<Integer, BuildingSummary> buildingSource;
+    private final LiveData<ReadUploader.Progress> uploadProgress;
+    private final MutableLiveData<Boolean> isSyncing = new MutableLiveData<>(false);
+    private final MutableLiveData<List<ReadSearchHit>> searchResults = new MutableLiveData<>(Collections.emptyList());
+    // Results of a search overtaken by a later keystroke are dropped
+    private int searchGeneration;
 
     public MainViewModel(@NonNull Application application) {
         super(application);
-        buildingRepository = new BuildingRepository(application);
-        buildingsLiveData = new MutableLiveData<>();
-        loadBuildings();
+        buildingRepository = GasMeterApp.from(application).getRepository();
+        // The filter is part of the query, so toggling it re-queries instead of filtering in memory.
+        // One pager serves both filters: toggling invalidates its source and it loads a new one.
+        buildingsLiveData = PagingLiveData.cachedIn(
+                PagingLiveData.getLiveData(new Pager<>(BuildingRepository.BUILDING_PAGING, this::newBuildingSource)),
+                ViewModelKt.getViewModelScope(this));
+        buildingCount = Transformations.switchMap(incompleteOnly, buildingRepository::getBuildingCountLive);
+        uploadProgress = buildingRepository.getUploadProgress();
+        buildingRepository.scheduleUploadSweep();
     }
 
-    public LiveData<List<Building>> getBuildings() {
+    public LiveData<PagingData<BuildingSummary>> getBuildings() {
         return buildingsLiveData;
     }
 
-    private void loadBuildings() {
-        // Observe the repository's LiveData and update our MutableLiveData
-        buildingRepository.getAllBuildingsLive().observeForever(buildings -> {
-            buildingsLiveData.setValue(buildings);
-        });
+    /** How many buildings the list holds, loaded or not. */
+    public LiveData<Integer> getBuildingCount() {
+        return buildingCount;
+    }
+
+    public void setIncompleteOnly(boolean incompleteOnly) {
+        PagingSource<Integer, BuildingSummary> stale;
+        synchronized (this) {
+            if (incompleteOnly == incompleteOnlyFilter) return;
+            incompleteOnlyFilter = incompleteOnly;
+            stale = buildingSource;
+        }
+        this.incompleteOnly.setValue(incompleteOnly);
+        if (stale != null) {
+            stale.invalidate();
+        }
+    }
+
+    private synchronized PagingSource<Integer, BuildingSummary> newBuildingSource() {
+        buildingSource = buildingRepository.getBuildingSummaries(incompleteOnlyFilter);
+        return buildingSource;
     }
 
     public void reloadBuildings() {
-        buildingRepository.reloadBuilding();
-        // No need to call loadBuildings() as we're already observing changes
+        isSyncing.setValue(true);
+        // The list follows the database, only the outcome needs reporting
+        buildingRepository.reloadBuilding().whenCompleteAsync((ignored, failure) -> {
+            isSyncing.setValue(false);
+            if (failure != null) {
+                Toast.makeText(getApplication(), R.string.sync_failed, Toast.LENGTH_SHORT).show();
+            }
+        }, ContextCompat.getMainExecutor(getApplication()));
+    }
+
+    public LiveData<Boolean> getIsSyncing() {
+        return isSyncing;
     }
 
     public void updateAllReadings() {
@@ -41,10 +96,24 @@ public class MainViewModel extends AndroidViewModel {
         // No need to call loadBuildings() as we're already observing changes
     }
 
-    @Override
-    protected void onCleared() {
-        super.onCleared();
-        // Clean up the observer if needed
-        buildingRepository.getAllBuildingsLive().removeObserver(buildings -> {});
+    public LiveData<ReadUploader.Progress> getUploadProgress() {
+        return uploadProgress;
+    }
+
+    public LiveData<List<ReadSearchHit>> getSearchResults() {
+        return searchResults;
+    }
+
+    public void search(String text) {
+        int generation = ++searchGeneration;
+        buildingRepository.searchReads(text).thenAcceptAsync(hits -> {
+            if (generation == searchGeneration) {
+                searchResults.setValue(hits);
+            }
+        }, ContextCompat.getMainExecutor(getApplication()));
+    }
+
+    public LiveData<Integer> getPendingUploadCount() {
+        return buildingRepository.getPendingUploadCount();
     }
 }
\ No newline at end of file
@@ -1,58 +1,121 @@
 package com.example.gasmeterreader.viewModels;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
 import android.widget.Toast;
 
+import androidx.core.content.ContextCompat;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import com.example.gasmeterreader.GasMeterApp;
 import com.example.gasmeterreader.database.BuildingRepository;
 import com.example.gasmeterreader.entities.Building;
 import com.example.gasmeterreader.entities.Read;
-import static com.example.gasmeterreader.utils.EntityUtils.sortReadsByOrder;
+import com.example.gasmeterreader.utils.ReadCursor;
+import com.example.gasmeterreader.utils.ReadNavigator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ReadingViewModel extends AndroidViewModel {
+    // Quiet period after the last keystroke before an entered value is written
+    private static final long WRITE_DELAY = 800;
+
     private final BuildingRepository buildingRepository;
     private final MutableLiveData<List<Read>> reads = new MutableLiveData<>();
     private final MutableLiveData<Read> selectedRead = new MutableLiveData<>();
+    // The read whose value was just typed; only its row needs showing again, not the list
+    private final MutableLiveData<Read> editedRead = new MutableLiveData<>();
     private final MutableLiveData<Boolean> cameraPermissionGranted = new MutableLiveData<>(false);
     private final MutableLiveData<String> currentReadInput = new MutableLiveData<>("");
     private Building building;
+    // Shared with the camera screen through the building; null until it loads
+    private ReadNavigator navigator;
+    // This screen's own position, so the camera screen moving never moves it
+    private ReadCursor cursor;
+    // Opened from a search hit: kept selected across reloads until the user moves on
+    private int requestedUserId = -1;
+
+    // Edited reads waiting to be written, one entry per read however many times it changed
+    private final Map<Integer, Read> pendingWrites = new LinkedHashMap<>();
+    private final Handler writeHandler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flushPendingWrites;
 
     public ReadingViewModel(Application application) {
         super(application);
-        buildingRepository = new BuildingRepository(application);
+        buildingRepository = GasMeterApp.from(application).getRepository();
     }
 
     public void loadReadsForBuilding(int buildingCenter) {
         if (buildingCenter != -1) {
-            building = buildingRepository.getBuildingByCenter(buildingCenter);
-            List<Read> readList = building.getReadList();
-            reads.setValue(sortReadsByOrder(readList));
+            buildingRepository.getBuildingByCenter(buildingCenter).thenAcceptAsync(loaded -> {
+                if (loaded == null) return;
+                // Kept across a reload, so coming back from the camera screen stays in place
+                Read selected = selectedRead.getValue();
+                building = loaded;
+                navigator = building.getNavigator();
+                cursor = new ReadCursor(navigator);
+
+                // Resolved before the list is posted, so its observers find it selected
+                if (!selectRequestedRead() && !reselect(selected)) {
+                    selectFirstUnreadRead();
+                }
+                reads.setValue(navigator.getReads());
+            }, ContextCompat.getMainExecutor(getApplication()));
+        }
+    }
 
-            // Select the first unread read when loading
-            selectFirstUnreadRead();
+    /**
+     * Loads the building again, for reads the camera screen changed, keeping the selected
+     * read. Does nothing before the first load.
+     */
+    public void refreshReads() {
+        if (building != null) {
+            loadReadsForBuilding(building.getCenter());
         }
     }
 
+    /** Selects {@code userId} once its building loads, instead of the first unread read. */
+    public void requestSelection(int userId) {
+        requestedUserId = userId;
+    }
+
+    private boolean selectRequestedRead() {
+        if (requestedUserId == -1 || navigator == null) return false;
+        int position = navigator.indexOf(requestedUserId);
+        if (position == -1) return false;
+        select(navigator.get(position));
+        return true;
+    }
+
+    private boolean reselect(Read selected) {
+        if (selected == null) return false;
+        int position = navigator.indexOf(selected.getUser_id());
+        if (position == -1) return false;
+        select(navigator.get(position));
+        return true;
+    }
+
     private void selectFirstUnreadRead() {
-        List<Read> readList = reads.getValue();
-        if (readList != null && !readList.isEmpty()) {
-            // Always prefer the first item
-            setSelectedRead(readList.get(0));
-
-            // If there are unread reads, try to select the first unread
-            for (Read read : readList) {
-                if (!read.isRead() || read.getCurrent_read() == 0) {
-                    setSelectedRead(read);
-                    break;
-                }
-            }
+        if (navigator != null && navigator.size() > 0) {
+            // The first unread read, or the first read once all are done
+            int position = navigator.firstUnread();
+            select(navigator.get(position != -1 ? position : 0));
         }
     }
 
     public void setSelectedRead(Read read) {
+        requestedUserId = -1;
+        select(read);
+    }
+
+    private void select(Read read) {
+        flushPendingWrites();
+        if (cursor != null) {
+            cursor.moveTo(read);
+        }
         selectedRead.setValue(read);
         if (read != null && read.getCurrent_read() != 0) {
             currentReadInput.setValue(String.valueOf(read.getCurrent_read()));
@@ -61,27 +124,20 @@ public class ReadingViewModel extends AndroidViewModel {
         }
     }
 
-    public void moveToNextRead() {
-        List<Read> readList = reads.getValue();
-        Read currentRead = selectedRead.getValue();
-
-        if (readList != null && currentRead != null) {
-            int currentIndex = readList.indexOf(currentRead);
-            if (currentIndex < readList.size() - 1) {
-                setSelectedRead(readList.get(currentIndex + 1));
-            }
-        }
+    /** Selects the next read; returns false if the selected one is the last. */
+    public boolean moveToNextRead() {
+        flushPendingWrites();
+        Read next = cursor != null ? cursor.getNext() : null;
+        if (next == null) return false;
+        setSelectedRead(next);
+        return true;
     }
 
     public void moveToPreviousRead() {
-        List<Read> readList = reads.getValue();
-        Read currentRead = selectedRead.getValue();
-
-        if (readList != null && currentRead != null) {
-            int currentIndex = readList.indexOf(currentRead);
-            if (currentIndex > 0) {
-                setSelectedRead(readList.get(currentIndex - 1));
-            }
+        flushPendingWrites();
+        Read previous = cursor != null ? cursor.getPrevious() : null;
+        if (previous != null) {
+            setSelectedRead(previous);
         }
     }
 
@@ -92,20 +148,18 @@ public class ReadingViewModel extends AndroidViewModel {
             try {
                 double value = input.isEmpty() ? 0 : Double.parseDouble(input.trim());
                 if (value >= 0 && value <= 99999) {
+                    // The selected read is one of the list's own objects, so the list
+                    // already holds the new value
                     read.setCurrent_read(value);
-
-                    List<Read> currentReads = reads.getValue();
-                    if (currentReads != null) {
-                        int index = currentReads.indexOf(read);
-                        if (index != -1) {
-                            read.wasRead();
-                            currentReads.set(index, read);
-                            reads.setValue(currentReads);
-                            building.setReadList(reads.getValue());
-                            building.checkCompleted();
-                            buildingRepository.updateBuilding(building);
-                        }
+                    read.wasRead();
+                    if (navigator != null) {
+                        navigator.update(read);
                     }
+                    editedRead.setValue(read);
+
+                    pendingWrites.put(read.getUser_id(), read);
+                    writeHandler.removeCallbacks(flushRunnable);
+                    writeHandler.postDelayed(flushRunnable, WRITE_DELAY);
                 } else {
                     Toast.makeText(getApplication(), "Invalid meter reading", Toast.LENGTH_SHORT).show();
                 }
@@ -114,6 +168,18 @@ public class ReadingViewModel extends AndroidViewModel {
         }
     }
 
+    /**
+     * Writes every edited read now. Called when the selection moves, when the screen
+     * pauses, and after a quiet period following the last edit.
+     */
+    public void flushPendingWrites() {
+        writeHandler.removeCallbacks(flushRunnable);
+        if (pendingWrites.isEmpty() || building == null) return;
+        building.setComplete(navigator.isComplete());
+        buildingRepository.saveReads(building, pendingWrites.values());
+        pendingWrites.clear();
+    }
+
     public void setCameraPermissionGranted(boolean granted) {
         cameraPermissionGranted.setValue(granted);
     }
@@ -122,10 +188,20 @@ public class ReadingViewModel extends AndroidViewModel {
         return reads;
     }
 
+    /** Each read as its value is typed, after it was updated in place in {@link #getReads()}. */
+    public LiveData<Read> getEditedRead() {
+        return editedRead;
+    }
+
     public LiveData<Read> getSelectedRead() {
         return selectedRead;
     }
 
+    /** The selected read's position in {@link #getReads()}, or -1 before the building loads. */
+    public int getSelectedPosition() {
+        return navigator != null ? navigator.indexOf(selectedRead.getValue()) : -1;
+    }
+
     public LiveData<Boolean> getCameraPermissionGranted() {
         return cameraPermissionGranted;
     }
@@ -137,4 +213,10 @@ public class ReadingViewModel extends AndroidViewModel {
     public Building getBuilding() {
         return building;
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        flushPendingWrites();
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.gasmeterreader.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.GzipSource;
+import okio.Okio;
+
+/**
+ * Runs the app's HTTP stack against a local stand-in server and checks the bytes on the
+ * wire for the route download, its cached revalidation and the bulk upload, and that
+ * requests share one connection.
+ */
+public class HttpStackTest {
+    private static final int ROUTE_SIZE = 20_000;
+    private static final int UPLOAD_SIZE = 3_000;
+    private static final int REQUESTS = 10;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = new Gson();
+    private final AtomicLong wireBytes = new AtomicLong();
+    private MockWebServer server;
+    private OkHttpClient client;
+    private WebServiceApi api;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        client = HttpStack.newClientBuilder(folder.newFolder("http"))
+                .eventListener(new WireBytes())
+                .build();
+        api = HttpStack.createApi(client, server.url("/").toString());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void routeIsCompressedAndRevalidatedFromCache() throws Exception {
+        String route = gson.toJson(ReadFixtures.route(ROUTE_SIZE));
+
+        server.enqueue(new MockResponse().setHeader("ETag", "v1").setBody(route));
+        long plain = download(api, null);
+        assertEquals("gzip", server.takeRequest().getHeader("Accept-Encoding"));
+        assertEquals(ROUTE_SIZE, count(route));
+
+        server.enqueue(new MockResponse().setHeader("ETag", "v1")
+                .setHeader("Content-Encoding", "gzip").setBody(gzip(route)));
+        long compressed = download(api, "v0");
+        server.takeRequest();
+
+        // No sync token, as after an interrupted merge: the cache revalidates for us
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "v1"));
+        long revalidated = download(api, null);
+        RecordedRequest conditional = server.takeRequest();
+        assertEquals("v1", conditional.getHeader("If-None-Match"));
+        assertEquals(1, client.cache().hitCount());
+
+        // Deltas are never stored, so the cached full route stays the one revalidated
+        server.enqueue(new MockResponse().setHeader("ETag", "v2")
+                .setHeader(ReadSync.DELTA_HEADER, "true").setBody("[]"));
+        download(api, "v1");
+        server.takeRequest();
+        server.enqueue(new MockResponse().setResponseCode(304));
+        download(api, null);
+        assertEquals("v1", server.takeRequest().getHeader("If-None-Match"));
+        assertEquals(2, client.cache().hitCount());
+
+        assertTrue(compressed * 4 < plain);
+        assertTrue(revalidated * 100 < compressed);
+    }
+
+    @Test
+    public void bulkUploadIsCompressed() throws Exception {
+        List<Read> reads = ReadFixtures.route(UPLOAD_SIZE);
+        server.enqueue(new MockResponse().setBody("{}"));
+        api.uploadReads(reads).execute();
+        RecordedRequest request = server.takeRequest();
+        assertEquals("gzip", request.getHeader("Content-Encoding"));
+        long compressed = request.getBodySize();
+        String json = Okio.buffer(new GzipSource(request.getBody())).readUtf8();
+        assertEquals(UPLOAD_SIZE, count(json));
+
+        long plain = gson.toJson(reads).getBytes("UTF-8").length;
+        assertTrue(compressed * 4 < plain);
+    }
+
+    @Test
+    public void sharedClientReusesConnections() throws Exception {
+        for (int i = 0; i < REQUESTS; i++) {
+            server.enqueue(new MockResponse().setResponseCode(304));
+        }
+        for (int i = 0; i < REQUESTS; i++) {
+            download(api, "v1");
+        }
+        // Sequence numbers count requests per connection, so one connection numbers them all
+        for (int i = 0; i < REQUESTS; i++) {
+            assertEquals(i, server.takeRequest().getSequenceNumber());
+        }
+        assertEquals(1, client.connectionPool().connectionCount());
+    }
+
+    private long download(WebServiceApi api, String etag) throws IOException {
+        long before = wireBytes.get();
+        ReadSync.Payload payload = ReadSync.fromResponse(api.getReads(etag).execute());
+        if (!payload.isNotModified()) {
+            payload.readBatches(500, batch -> { });
+        }
+        return wireBytes.get() - before;
+    }
+
+    private int count(String json) {
+        return gson.<List<Read>>fromJson(json, new TypeToken<List<Read>>() {}.getType()).size();
+    }
+
+    private static Buffer gzip(String body) throws IOException {
+        Buffer compressed = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new GzipSink(compressed))) {
+            sink.writeUtf8(body);
+        }
+        return compressed;
+    }
+
+    /** Counts response header and body bytes as they come off the socket. */
+    private class WireBytes extends EventListener {
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            wireBytes.addAndGet(response.headers().byteCount());
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            wireBytes.addAndGet(byteCount);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.gasmeterreader.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.gasmeterreader.database.AppDatabase;
+import com.example.gasmeterreader.database.BuildingCache;
+import com.example.gasmeterreader.entities.Building;
+import com.example.gasmeterreader.entities.BuildingWithReads;
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+import com.google.gson.Gson;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * Replays full and delta payloads of a 50k-read route from a local server through
+ * {@link Api#getReads()} into an in-memory database, checking that unsynced local readings
+ * survive and that a delta moves a fraction of the bytes. ReadSyncBenchmark in :benchmarks
+ * measures the parsing and merging of each.
+ */
+@RunWith(RobolectricTestRunner.class)
+// Only the sync and the database are under test, not the app's startup
+@Config(application = Application.class)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class ReadSyncTest {
+    private static final int ROUTE_SIZE = 50_000;
+    private static final int DIRTY_READS = 100;
+    private static final int DELTA_SIZE = 1_000;
+
+    private final Gson gson = new Gson();
+    private final AtomicLong responseBytes = new AtomicLong();
+    private MockWebServer server;
+    private AppDatabase db;
+    private SharedPreferences syncPrefs;
+    private Api api;
+    private long lastBytes;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        OkHttpClient client = new OkHttpClient.Builder()
+                .eventListener(new EventListener() {
+                    @Override
+                    public void responseBodyEnd(Call call, long byteCount) {
+                        responseBytes.addAndGet(byteCount);
+                    }
+                })
+                .build();
+        WebServiceApi webServiceApi = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(WebServiceApi.class);
+
+        Context context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        syncPrefs = context.getSharedPreferences("sync", Context.MODE_PRIVATE);
+        // Synchronous, so each sync has finished when getReads() returns
+        api = new Api(db, syncPrefs, webServiceApi, Runnable::run);
+        BuildingCache.getInstance().clear();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        db.close();
+        server.shutdown();
+        BuildingCache.getInstance().clear();
+    }
+
+    @Test
+    public void incrementalSyncKeepsUnsyncedReadings() throws Exception {
+        List<Read> route = ReadFixtures.route(ROUTE_SIZE, 1);
+
+        // First sync: no token, full route
+        server.enqueue(new MockResponse().setHeader("ETag", "v1").setBody(gson.toJson(route)));
+        sync();
+        long fullBytes = lastBytes;
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+        assertEquals("v1", etag());
+        assertEquals(ROUTE_SIZE, count("SELECT COUNT(*) FROM read"));
+        assertEquals(ROUTE_SIZE, count("SELECT COUNT(*) FROM read_fts"));
+        assertEquals(count("SELECT COUNT(DISTINCT center) FROM read"), count("SELECT COUNT(*) FROM building"));
+
+        // Readings entered on the device, not uploaded yet
+        List<Integer> dirtyIds = new ArrayList<>();
+        for (int i = 0; i < DIRTY_READS; i++) {
+            int userId = route.get(i * 7).getUser_id();
+            db.readDao().updateCurrentRead(userId, 5000 + i, true);
+            dirtyIds.add(userId);
+        }
+
+        // Nothing changed on the server
+        server.enqueue(new MockResponse().setResponseCode(304));
+        sync();
+        RecordedRequest conditional = server.takeRequest();
+        assertEquals("v1", conditional.getHeader("If-None-Match"));
+        assertEquals("v1", etag());
+
+        // The server moved last_read and reset current_read on some reads, the dirty ones among them
+        List<Read> changed = new ArrayList<>();
+        for (int i = 0; i < DELTA_SIZE; i++) {
+            Read read = route.get(i * 7);
+            Read updated = new Read(read.getUser_id(), read.getCity(), read.getStreet(),
+                    read.getHouse_number(), read.getEntry(), read.getOrder(), read.getUser_name(),
+                    read.getUser_status(), read.getApartment(), read.getMeter_id(),
+                    read.getLast_read() + 1, 0, read.getCenter(), "עודכן");
+            changed.add(updated);
+            route.set(i * 7, updated);
+        }
+        server.enqueue(new MockResponse().setHeader("ETag", "v2")
+                .setHeader(ReadSync.DELTA_HEADER, "true").setBody(gson.toJson(changed)));
+        sync();
+        assertEquals("v1", server.takeRequest().getHeader("If-None-Match"));
+        assertEquals("v2", etag());
+        assertTrue(lastBytes * 10 < fullBytes);
+        List<Read> dirty = db.readDao().getReadsByIds(dirtyIds);
+        assertEquals(DIRTY_READS, dirty.size());
+        for (Read read : dirty) {
+            assertEquals(5000 + dirtyIds.indexOf(read.getUser_id()), read.getCurrent_read(), 0);
+            assertTrue(read.isDirty());
+            assertTrue(read.isRead());
+            assertEquals("עודכן", read.getComment());
+        }
+        Read clean = readById(route.get(7 * (DELTA_SIZE - 1)).getUser_id());
+        assertFalse(clean.isDirty());
+        assertEquals("עודכן", clean.getComment());
+        assertEquals(route.get(7 * (DELTA_SIZE - 1)).getLast_read(), clean.getLast_read(), 0);
+        assertEquals(DIRTY_READS, db.readDao().getDirtyCount());
+
+        // A server without delta support sends the whole route again; nothing local is lost
+        server.enqueue(new MockResponse().setHeader("ETag", "v3").setBody(gson.toJson(route)));
+        sync();
+        assertEquals("v2", server.takeRequest().getHeader("If-None-Match"));
+        assertEquals("v3", etag());
+        assertEquals(ROUTE_SIZE, count("SELECT COUNT(*) FROM read"));
+        assertEquals(ROUTE_SIZE, count("SELECT COUNT(*) FROM read_fts"));
+        assertEquals(5000, readById(dirtyIds.get(0)).getCurrent_read(), 0);
+        assertEquals(DIRTY_READS, db.readDao().getDirtyCount());
+    }
+
+    @Test
+    public void newCentersGetBuildingsAndSearchRows() throws Exception {
+        server.enqueue(new MockResponse().setHeader("ETag", "v1").setBody(gson.toJson(ReadFixtures.route(1_200, 2))));
+        sync();
+        int buildings = count("SELECT COUNT(*) FROM building");
+
+        // A delta that opens a new building on the route
+        List<Read> added = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            added.add(new Read(900_000 + i, "נשר", "הנביאים", 7, "ב", i, "דייר חדש " + i, null, i + 1,
+                    7_654_321 + i, 0, 0, 5_000, null));
+        }
+        server.enqueue(new MockResponse().setHeader("ETag", "v2")
+                .setHeader(ReadSync.DELTA_HEADER, "true").setBody(gson.toJson(added)));
+        sync();
+
+        assertEquals(buildings + 1, count("SELECT COUNT(*) FROM building"));
+        BuildingWithReads building = db.buildingDao().getBuildingByCenter(5_000);
+        assertNotNull(building);
+        assertEquals(3, building.toBuilding().getReadList().size());
+        assertFalse(building.toBuilding().isComplete());
+        assertEquals(3, count("SELECT COUNT(*) FROM read_fts WHERE read_fts MATCH 'חדש'"));
+    }
+
+    @Test
+    public void syncDropsTouchedBuildingsFromTheCache() throws Exception {
+        List<Read> route = ReadFixtures.route(2_000, 3);
+        server.enqueue(new MockResponse().setHeader("ETag", "v1").setBody(gson.toJson(route)));
+        sync();
+
+        Read first = route.get(0);
+        Read last = route.get(route.size() - 1);
+        assertTrue(first.getCenter() != last.getCenter());
+        BuildingCache cache = BuildingCache.getInstance();
+        Building touched = cache.put(db.buildingDao().getBuildingByCenter(first.getCenter()).toBuilding(),
+                cache.getGeneration());
+        Building untouched = cache.put(db.buildingDao().getBuildingByCenter(last.getCenter()).toBuilding(),
+                cache.getGeneration());
+
+        Read updated = new Read(first.getUser_id(), first.getCity(), first.getStreet(),
+                first.getHouse_number(), first.getEntry(), first.getOrder(), first.getUser_name(),
+                first.getUser_status(), first.getApartment(), first.getMeter_id(),
+                first.getLast_read() + 1, 0, first.getCenter(), "עודכן");
+        server.enqueue(new MockResponse().setHeader("ETag", "v2")
+                .setHeader(ReadSync.DELTA_HEADER, "true").setBody(gson.toJson(Collections.singletonList(updated))));
+        sync();
+
+        assertNull(cache.get(touched.getCenter()));
+        assertSame(untouched, cache.get(untouched.getCenter()));
+    }
+
+    @Test
+    public void interruptedSyncKeepsItsBatchesButNotTheEtag() throws Exception {
+        // The first full batch parses, then the body breaks off mid-read
+        String route = gson.toJson(ReadFixtures.route(1_500, 4));
+        String truncated = route.substring(0, route.length() * 3 / 4);
+        server.enqueue(new MockResponse().setHeader("ETag", "v1").setBody(truncated));
+
+        assertSyncFails();
+        assertTrue(count("SELECT COUNT(*) FROM read") >= 500);
+        assertEquals(count("SELECT COUNT(*) FROM read"), count("SELECT COUNT(*) FROM read_fts"));
+        assertNull(etag());
+
+        // So the next sync asks for everything again
+        server.takeRequest();
+        server.enqueue(new MockResponse().setHeader("ETag", "v1").setBody(route));
+        sync();
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+        assertEquals(1_500, count("SELECT COUNT(*) FROM read"));
+        assertEquals("v1", etag());
+    }
+
+    @Test
+    public void serverErrorIsReported() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        assertSyncFails();
+        assertNull(etag());
+        assertEquals(0, count("SELECT COUNT(*) FROM read"));
+    }
+
+    /** Runs one sync, keeping the response bytes it read in {@link #lastBytes}. */
+    private void sync() throws Exception {
+        long bytesBefore = responseBytes.get();
+        api.getReads().get();
+        lastBytes = responseBytes.get() - bytesBefore;
+    }
+
+    private void assertSyncFails() throws InterruptedException {
+        try {
+            api.getReads().get();
+            fail("sync should have failed");
+        } catch (ExecutionException expected) {
+            assertNotNull(expected.getCause());
+        }
+    }
+
+    private String etag() {
+        return syncPrefs.getString("etag", null);
+    }
+
+    private Read readById(int userId) {
+        return db.readDao().getReadsByIds(Collections.singletonList(userId)).get(0);
+    }
+
+    private int count(String sql) {
+        try (Cursor cursor = db.query(sql, null)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+}
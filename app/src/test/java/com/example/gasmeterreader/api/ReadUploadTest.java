@@ -0,0 +1,153 @@
+package com.example.gasmeterreader.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * Uploads a 3,000-read route through {@link ReadUploader} to a local server with simulated
+ * latency, and checks it takes a few requests rather than one per read. The server rejects
+ * some items and fails one chunk on first sight, to check that only those are sent again.
+ */
+public class ReadUploadTest {
+    private static final int ROUTE_SIZE = 3_000;
+    private static final int CHUNK_SIZE = 200;
+    private static final int MAX_CONCURRENT = 2;
+    private static final int REJECT_EVERY = 97;
+    private static final long LATENCY_MS = 5;
+    private static final Type READ_LIST = new TypeToken<List<Read>>() {}.getType();
+
+    private final Gson gson = new Gson();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Map<Integer, AtomicInteger> sends = new ConcurrentHashMap<>();
+    // user_ids rejected the first time, and whether the first chunk already failed once
+    private final Set<Integer> rejectOnce = Collections.synchronizedSet(new HashSet<>());
+    private volatile boolean failedChunk;
+    private MockWebServer server;
+    private Retrofit retrofit;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                return respond(request);
+            }
+        });
+        server.start();
+        retrofit = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(GsonConverterFactory.create())
+                .build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void bulkUploadRetriesOnlyWhatFailed() throws Exception {
+        List<Read> route = route();
+
+        for (int i = 0; i < ROUTE_SIZE; i += REJECT_EVERY) {
+            rejectOnce.add(route.get(i).getUser_id());
+        }
+        Set<Integer> accepted = Collections.synchronizedSet(new HashSet<>());
+        List<ReadUploader.Progress> progress = Collections.synchronizedList(new ArrayList<>());
+        ReadUploader uploader = new ReadUploader(
+                retrofit.create(WebServiceApi.class), CHUNK_SIZE, MAX_CONCURRENT, 3);
+
+        ReadUploader.Progress result = uploader.upload(route, new ReadUploader.Listener() {
+            @Override
+            public void onUploaded(List<Read> reads) {
+                for (Read read : reads) {
+                    assertTrue("uploaded twice: " + read.getUser_id(), accepted.add(read.getUser_id()));
+                }
+            }
+
+            @Override
+            public void onProgress(ReadUploader.Progress update) {
+                progress.add(update);
+            }
+        });
+
+        assertTrue(result.isFinished());
+        assertEquals(ROUTE_SIZE, result.getUploaded());
+        assertEquals(0, result.getFailed());
+        assertEquals(ROUTE_SIZE, accepted.size());
+        // The failed chunk goes again in full, a rejected item goes again alone
+        for (int i = 0; i < ROUTE_SIZE; i++) {
+            int expected = 1 + (i < CHUNK_SIZE ? 1 : 0) + (i % REJECT_EVERY == 0 ? 1 : 0);
+            assertEquals(expected, sends.get(route.get(i).getUser_id()).get());
+        }
+        assertTrue(requests.get() < ROUTE_SIZE / CHUNK_SIZE * 2);
+        ReadUploader.Progress last = progress.get(progress.size() - 1);
+        assertTrue(last.isFinished());
+        assertEquals(ROUTE_SIZE, last.getUploaded());
+    }
+
+    private MockResponse respond(RecordedRequest request) {
+        requests.incrementAndGet();
+        List<Read> reads = gson.fromJson(request.getBody().readUtf8(), READ_LIST);
+        for (Read read : reads) {
+            sends.computeIfAbsent(read.getUser_id(), id -> new AtomicInteger()).incrementAndGet();
+        }
+        if (reads.get(0).getUser_id() == ReadFixtures.FIRST_USER_ID && !failedChunk) {
+            failedChunk = true;
+            return delayed(new MockResponse().setResponseCode(503));
+        }
+        List<Integer> failed = new ArrayList<>();
+        for (Read read : reads) {
+            if (rejectOnce.remove(read.getUser_id())) {
+                failed.add(read.getUser_id());
+            }
+        }
+        return delayed(new MockResponse().setBody(gson.toJson(new BulkUploadResult(failed))));
+    }
+
+    private MockResponse delayed(MockResponse response) {
+        return response.setHeadersDelay(LATENCY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Every read of the route entered on the device and not uploaded yet. */
+    private static List<Read> route() {
+        List<Read> reads = ReadFixtures.route(ROUTE_SIZE);
+        for (Read read : reads) {
+            read.setCurrent_read(read.getLast_read() + 10);
+            read.setDirty(true);
+        }
+        return reads;
+    }
+}
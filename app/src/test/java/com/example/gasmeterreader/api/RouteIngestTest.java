@@ -0,0 +1,159 @@
+package com.example.gasmeterreader.api;
+
+import static org.junit.Assert.assertEquals;
+
+import android.app.Application;
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.gasmeterreader.database.AppDatabase;
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * Downloads 10k and 100k-read routes from a local stand-in server. {@link Api#getReads()}
+ * must write them in transactions of a fixed number of reads, whatever the route size. The
+ * server generates the route as it writes it. RouteIngestBenchmark in :benchmarks measures
+ * the streamed parsing against the old, materialized one.
+ */
+@RunWith(RobolectricTestRunner.class)
+// Only the sync and the database are under test, not the app's startup
+@Config(application = Application.class)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class RouteIngestTest {
+    private static final int[] ROUTE_SIZES = {10_000, 100_000};
+
+    private final Gson gson = new Gson();
+    private HttpServer server;
+    private WebServiceApi webServiceApi;
+    private volatile int routeSize;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.getResponseHeaders().set("ETag", "v1");
+            exchange.sendResponseHeaders(200, 0);
+            try (JsonWriter writer = new JsonWriter(new BufferedWriter(
+                    new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)))) {
+                writer.beginArray();
+                ReadFixtures.forEachRouteRead(routeSize, 1, read -> gson.toJson(read, Read.class, writer));
+                writer.endArray();
+            }
+        });
+        server.start();
+        webServiceApi = new Retrofit.Builder()
+                .baseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/")
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(WebServiceApi.class);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void syncWritesFixedSizeTransactions() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        for (int size : ROUTE_SIZES) {
+            routeSize = size;
+            WriteLog log = new WriteLog();
+            AppDatabase db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                    .setQueryCallback(log, Runnable::run)
+                    // Room's own bookkeeping after each transaction runs inline, not interleaved
+                    .setQueryExecutor(Runnable::run)
+                    .allowMainThreadQueries()
+                    .build();
+            try {
+                db.getOpenHelper().getWritableDatabase();
+                log.reset();
+                Api api = new Api(db, context.getSharedPreferences("ingest-" + size, Context.MODE_PRIVATE),
+                        webServiceApi, Runnable::run);
+                api.getReads().get();
+
+                assertEquals(size, count(db, "SELECT COUNT(*) FROM read"));
+                assertEquals(size, log.readInserts);
+                assertEquals(0, log.readInsertsOutsideTransactions);
+                assertEquals(Api.BATCH_SIZE, log.maxReadsPerTransaction);
+                assertEquals((size + Api.BATCH_SIZE - 1) / Api.BATCH_SIZE, log.transactions);
+            } finally {
+                db.close();
+            }
+        }
+    }
+
+    private static int count(AppDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql, null)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+
+    /** Counts the rows written to the read table in each outermost transaction. */
+    private static class WriteLog implements RoomDatabase.QueryCallback {
+        int depth;
+        int readsInTransaction;
+        int transactions;
+        int maxReadsPerTransaction;
+        int readInserts;
+        int readInsertsOutsideTransactions;
+
+        @Override
+        public void onQuery(@NonNull String sql, @NonNull List<?> bindArgs) {
+            if (sql.startsWith("BEGIN")) {
+                depth++;
+            } else if (sql.equals("END TRANSACTION")) {
+                if (--depth == 0 && readsInTransaction > 0) {
+                    transactions++;
+                    maxReadsPerTransaction = Math.max(maxReadsPerTransaction, readsInTransaction);
+                    readsInTransaction = 0;
+                }
+            } else if (sql.startsWith("INSERT OR REPLACE INTO `read`")) {
+                readInserts++;
+                if (depth > 0) {
+                    readsInTransaction++;
+                } else {
+                    readInsertsOutsideTransactions++;
+                }
+            }
+        }
+
+        void reset() {
+            depth = 0;
+            readsInTransaction = 0;
+            transactions = 0;
+            maxReadsPerTransaction = 0;
+            readInserts = 0;
+            readInsertsOutsideTransactions = 0;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.gasmeterreader.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.example.gasmeterreader.entities.Building;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+public class BuildingCacheTest {
+
+    @Test
+    public void evictsLeastRecentlyUsedByReadCount() {
+        BuildingCache cache = new BuildingCache(100);
+        cache.put(building(1, 40), cache.getGeneration());
+        cache.put(building(2, 40), cache.getGeneration());
+        // Touching 1 makes 2 the eldest
+        cache.get(1);
+        cache.put(building(3, 40), cache.getGeneration());
+
+        assertNull(cache.get(2));
+        assertEquals(40, cache.get(1).getReadList().size());
+        assertEquals(80, cache.getReadCount());
+    }
+
+    @Test
+    public void keepsASingleOversizedBuilding() {
+        BuildingCache cache = new BuildingCache(100);
+        cache.put(building(1, 10), cache.getGeneration());
+        cache.put(building(2, 500), cache.getGeneration());
+
+        assertNull(cache.get(1));
+        assertEquals(500, cache.getReadCount());
+    }
+
+    @Test
+    public void loadsStartedBeforeAnInvalidationAreNotCached() {
+        BuildingCache cache = new BuildingCache(100);
+        long generation = cache.getGeneration();
+        cache.invalidate(Collections.singletonList(1));
+        Building stale = building(1, 5);
+
+        assertSame(stale, cache.put(stale, generation));
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    public void secondLoadGetsTheCachedInstance() {
+        BuildingCache cache = new BuildingCache(100);
+        Building first = cache.put(building(1, 5), cache.getGeneration());
+
+        assertSame(first, cache.put(building(1, 5), cache.getGeneration()));
+    }
+
+    private static Building building(int center, int reads) {
+        return ReadFixtures.building(center, center * 1000, reads);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.gasmeterreader.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.gasmeterreader.entities.Building;
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.entities.ReadFts;
+import com.example.gasmeterreader.entities.ReadSearchHit;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Seeds a 100k-read route into Room the way the sync writes it, then runs route-wide
+ * searches of each kind a technician types and checks their ranking and limit.
+ */
+@RunWith(RobolectricTestRunner.class)
+// Only the database is under test, not the app's startup
+@Config(application = Application.class)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class ReadSearchTest {
+    private static final int ROUTE_SIZE = 100_000;
+    private static final int BUILDING_SIZE = 40;
+    private static final int BATCH_SIZE = 500;
+
+    private static final String[] FIRST_NAMES = {"משה", "דוד", "יוסף", "שרה", "רחל", "יעקב", "מרים", "אברהם"};
+    private static final String[] SURNAMES = {"כהן", "לוי", "מזרחי", "פרץ", "ביטון", "דהן", "אברהם", "פרידמן",
+            "שפירא", "אזולאי", "גבאי", "חדד", "קליין", "רוזנברג", "אוחיון", "גולן"};
+    private static final String[] STREETS = {"הרצל", "בן גוריון", "ויצמן", "הנביאים", "העצמאות", "מוריה",
+            "אלנבי", "ז'בוטינסקי", "סוקולוב", "גולן"};
+    private static final String[] CITIES = {"חיפה", "קריית ביאליק", "נשר", "טירת כרמל"};
+
+    private AppDatabase db;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        List<Read> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < ROUTE_SIZE; i++) {
+            batch.add(read(i));
+            if (batch.size() == BATCH_SIZE) {
+                insert(batch);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        insert(batch);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void fullSerialRanksItsReadFirst() {
+        Read target = read(73_421);
+        List<ReadSearchHit> hits = search(String.valueOf(target.getMeter_id()));
+        assertFalse(hits.isEmpty());
+        assertEquals(target.getUser_id(), hits.get(0).getUser_id());
+        assertEquals(target.getCenter(), hits.get(0).getCenter());
+    }
+
+    @Test
+    public void everyWordMustMatch() {
+        List<ReadSearchHit> hits = search("כהן הרצל");
+        assertFalse(hits.isEmpty());
+        for (ReadSearchHit hit : hits) {
+            assertTrue(hit.getUser_name().contains("כהן"));
+            assertEquals("הרצל", hit.getStreet());
+        }
+    }
+
+    @Test
+    public void nameHitsOutrankStreetHits() {
+        // A surname that is also a street name: the tenant is what was searched for
+        List<ReadSearchHit> hits = search("גולן");
+        assertFalse(hits.isEmpty());
+        assertTrue(hits.get(0).getUser_name().contains("גולן"));
+    }
+
+    @Test
+    public void bestHitAmongThousandsIsFound() {
+        // The one tenant of that name lives past the 10k reads on a street of the same name
+        Read tenant = ReadFixtures.read(ReadFixtures.FIRST_USER_ID + ROUTE_SIZE, CITIES[0], STREETS[0], 7, 1,
+                "רחל סוקולוב", 29_999_999, 1000, 0, 10_000 + ROUTE_SIZE / BUILDING_SIZE);
+        insert(Collections.singletonList(tenant));
+
+        List<ReadSearchHit> hits = search("סוקולוב");
+        assertEquals(BuildingRepository.SEARCH_RESULTS, hits.size());
+        assertEquals(tenant.getUser_id(), hits.get(0).getUser_id());
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).getScore() >= hits.get(i).getScore());
+        }
+    }
+
+    @Test
+    public void everyKindOfQueryIsRankedAndLimited() {
+        List<String> queries = Arrays.asList(
+                "2007",                                         // serial prefix
+                String.valueOf(read(51_234).getMeter_id()),     // full serial
+                "כהן",                                          // common surname
+                "רוזנברג",                                      // rarer surname
+                "הרצל 12",                                      // street and house
+                "ויצמן חיפה",                                   // street and city
+                "משה לוי");                                     // full name
+        for (String query : queries) {
+            List<ReadSearchHit> hits = search(query);
+            assertFalse(query, hits.isEmpty());
+            assertTrue(query, hits.size() <= BuildingRepository.SEARCH_RESULTS);
+            for (int i = 1; i < hits.size(); i++) {
+                assertTrue(query, hits.get(i - 1).getScore() >= hits.get(i).getScore());
+            }
+        }
+    }
+
+    /** What BuildingRepository#searchReads runs on the database executor. */
+    private List<ReadSearchHit> search(String text) {
+        return db.readSearchDao().search(BuildingRepository.searchQuery(text, BuildingRepository.SEARCH_RESULTS));
+    }
+
+    /** Like one sync batch: buildings, reads and their search rows in one transaction. */
+    private void insert(List<Read> reads) {
+        if (reads.isEmpty()) return;
+        db.runInTransaction(() -> {
+            List<Building> buildings = new ArrayList<>();
+            List<ReadFts> searchRows = new ArrayList<>(reads.size());
+            for (Read read : reads) {
+                if (read.getApartment() == 1) {
+                    buildings.add(new Building(read.getStreet(), read.getCity(), read.getHouse_number(),
+                            read.getCenter()));
+                }
+                searchRows.add(ReadFts.of(read));
+            }
+            db.buildingDao().insertNew(buildings);
+            db.readDao().insertAll(reads);
+            db.readSearchDao().insertAll(searchRows);
+        });
+    }
+
+    private static Read read(int i) {
+        int building = i / BUILDING_SIZE;
+        int apartment = 1 + i % BUILDING_SIZE;
+        // Spread so names and serials do not line up with buildings, with every surname in use
+        String name = FIRST_NAMES[(i * 7) % FIRST_NAMES.length] + " "
+                + SURNAMES[(i * 13 + i / SURNAMES.length) % SURNAMES.length];
+        return ReadFixtures.read(ReadFixtures.FIRST_USER_ID + i, CITIES[building % CITIES.length],
+                STREETS[building % STREETS.length], 1 + building % 120, apartment, name,
+                20_000_000 + (int) ((i * 7_919L) % 9_000_000), 1000 + i * 0.25, 0, 10_000 + building);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.gasmeterreader.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TracerTest {
+    private final List<String> calls = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        Tracer.setEnabled(false);
+        Tracer.setSink(null);
+        Tracer.clear();
+    }
+
+    @Test
+    public void sectionDisabledMidwayStillEnds() {
+        Tracer.setSink(new RecordingSink());
+        Tracer.setEnabled(true);
+        boolean traced = Tracer.beginSection("frame");
+        Tracer.setEnabled(false);
+        Tracer.endSection("frame", traced);
+
+        assertEquals(2, calls.size());
+        assertEquals("begin frame", calls.get(0));
+        assertEquals("end", calls.get(1));
+    }
+
+    @Test
+    public void sectionEnabledMidwayIsNotEnded() {
+        Tracer.setSink(new RecordingSink());
+        boolean traced = Tracer.beginSection("frame");
+        Tracer.setEnabled(true);
+        Tracer.endSection("frame", traced);
+
+        assertEquals(0, calls.size());
+    }
+
+    @Test
+    public void asyncSpanDisabledMidwayStillEnds() {
+        Tracer.setSink(new RecordingSink());
+        Tracer.setEnabled(true);
+        int id = Tracer.beginAsync("save");
+        Tracer.setEnabled(false);
+        Tracer.endAsync("save", id);
+
+        assertEquals(2, calls.size());
+        assertEquals("endAsync save " + id, calls.get(1));
+    }
+
+    private class RecordingSink implements Tracer.Sink {
+        @Override
+        public void beginSection(String name) {
+            calls.add("begin " + name);
+        }
+
+        @Override
+        public void endSection() {
+            calls.add("end");
+        }
+
+        @Override
+        public void beginAsync(String name, int id) {
+            calls.add("beginAsync " + name + " " + id);
+        }
+
+        @Override
+        public void endAsync(String name, int id) {
+            calls.add("endAsync " + name + " " + id);
+        }
+    }
+}
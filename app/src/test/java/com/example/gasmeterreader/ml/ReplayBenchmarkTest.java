@@ -0,0 +1,41 @@
+package com.example.gasmeterreader.ml;
+
+import static org.junit.Assume.assumeTrue;
+
+import com.google.gson.GsonBuilder;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+
+/**
+ * Replays recorded frame sequences through the pipeline and writes a JSON report.
+ * Skipped unless a recordings directory is given:
+ *
+ * <pre>./gradlew :app:testDebugUnitTest --tests '*ReplayBenchmarkTest' -PreplayDir=/path/to/recordings</pre>
+ */
+public class ReplayBenchmarkTest {
+    @Test
+    public void replayRecordings() throws Exception {
+        String directory = System.getProperty("replay.dir", "");
+        assumeTrue("replay.dir not set", !directory.isEmpty());
+
+        int warmupRuns = Integer.getInteger("replay.warmupRuns", 2);
+        for (int i = 0; i < warmupRuns; i++) {
+            new ReplayHarness(new File(directory)).run();
+        }
+        ReplayHarness.Report report = new ReplayHarness(new File(directory)).run();
+
+        File output = new File(System.getProperty("replay.report", "build/reports/replay/replay-report.json"));
+        File parent = output.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IllegalStateException("Cannot create " + parent);
+        }
+        try (Writer writer = new FileWriter(output)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(report, writer);
+        }
+        System.out.println("Replay report written to " + output.getAbsolutePath());
+    }
+}
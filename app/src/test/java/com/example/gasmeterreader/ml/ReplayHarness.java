@@ -0,0 +1,254 @@
+package com.example.gasmeterreader.ml;
+
+import android.graphics.Bitmap;
+
+import com.example.gasmeterreader.entities.Read;
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drives the recognition pipeline (replayed model outputs, post-processing, decoding and
+ * the live feed's consensus) over a directory of recorded frame sequences.
+ *
+ * Every sequence is a {@code <name>.gmtr} tensor recording next to a {@code <name>.json}
+ * label file holding the true {@code reading} and the meter's {@code last_read}.
+ */
+public class ReplayHarness {
+    private static final String[] STAGES = {"frame", "box", "digits", "consensus"};
+
+    static class Label {
+        double reading;
+        double last_read;
+    }
+
+    static class SequenceResult {
+        String name;
+        int frames;
+        boolean accepted;
+        String acceptedReading;
+        boolean correct;
+        int framesToAccept = -1;
+        double processingMsToAccept = -1;
+        double capturedMsToAccept = -1;
+        long allocatedBytes;
+    }
+
+    static class StageLatency {
+        int count;
+        double p50Ms;
+        double p90Ms;
+        double p99Ms;
+        double maxMs;
+    }
+
+    static class Report {
+        String createdAt;
+        String javaVersion;
+        int sequences;
+        int accepted;
+        int wrongAccepts;
+        double wrongAcceptRate;
+        double meanFramesToAccept;
+        double meanProcessingMsToAccept;
+        double meanCapturedMsToAccept;
+        long allocatedBytes;
+        double allocatedBytesPerFrame;
+        Map<String, StageLatency> stages = new LinkedHashMap<>();
+        List<SequenceResult> results = new ArrayList<>();
+    }
+
+    /** Times a backend's {@code detect}, including whatever its listener does. */
+    private static class TimedBackend implements InferenceBackend {
+        private final InferenceBackend delegate;
+        long lastNanos;
+
+        TimedBackend(InferenceBackend delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void detect(Bitmap frame) {
+            long start = System.nanoTime();
+            delegate.detect(frame);
+            lastNanos = System.nanoTime() - start;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    private final File directory;
+    private final Gson gson = new Gson();
+    private final Map<String, long[]> stageSamples = new LinkedHashMap<>();
+    private final Map<String, Integer> stageCounts = new LinkedHashMap<>();
+
+    public ReplayHarness(File directory) {
+        this.directory = directory;
+    }
+
+    public Report run() throws IOException {
+        File[] recordings = directory.listFiles((dir, name) -> name.endsWith(".gmtr"));
+        if (recordings == null) {
+            throw new IOException("Cannot list " + directory);
+        }
+        Arrays.sort(recordings);
+
+        for (String stage : STAGES) {
+            stageSamples.put(stage, new long[256]);
+            stageCounts.put(stage, 0);
+        }
+
+        Report report = new Report();
+        report.createdAt = java.time.Instant.now().toString();
+        report.javaVersion = System.getProperty("java.version");
+        long totalFrames = 0;
+        for (File recordingFile : recordings) {
+            SequenceResult result = runSequence(recordingFile);
+            report.results.add(result);
+            report.allocatedBytes += result.allocatedBytes;
+            totalFrames += result.frames;
+        }
+
+        summarize(report, totalFrames);
+        return report;
+    }
+
+    private SequenceResult runSequence(File recordingFile) throws IOException {
+        String name = recordingFile.getName().substring(0, recordingFile.getName().length() - ".gmtr".length());
+        Label label;
+        try (Reader reader = new FileReader(new File(recordingFile.getParentFile(), name + ".json"))) {
+            label = gson.fromJson(reader, Label.class);
+        }
+        TensorRecording recording;
+        try (InputStream input = new FileInputStream(recordingFile)) {
+            recording = TensorRecording.read(input);
+        }
+
+        Map<String, TimedBackend> backends = new LinkedHashMap<>();
+        ImageAnalyzer analyzer = new ImageAnalyzer((modelPath, labels, listener) -> {
+            TimedBackend backend = new TimedBackend(new ReplayBackend(recording, modelPath, labels, listener));
+            backends.put(modelPath, backend);
+            return backend;
+        });
+        analyzer.setRead(new Read(0, "", "", 0, "", 0, "", null, 0, 0,
+                label.last_read, 0, 0, null));
+        TimedBackend boxBackend = backends.get(ImageAnalyzer.BOX_MODEL);
+        TimedBackend digitsBackend = backends.get(ImageAnalyzer.DIGITS_DATA_MODEL);
+        DetectionConsensus consensus = new DetectionConsensus(DetectionConsensus.DETECTION_THRESHOLD);
+
+        SequenceResult result = new SequenceResult();
+        result.name = name;
+        long processingNanos = 0;
+        long allocatedBefore = allocatedBytes();
+        while (recording.advance()) {
+            result.frames++;
+            digitsBackend.lastNanos = 0;
+
+            long frameStart = System.nanoTime();
+            analyzer.detect(null);
+            long consensusStart = System.nanoTime();
+            boolean accepted = consensus.add(analyzer.getData());
+            long frameEnd = System.nanoTime();
+
+            processingNanos += frameEnd - frameStart;
+            addSample("frame", frameEnd - frameStart);
+            addSample("box", boxBackend.lastNanos - digitsBackend.lastNanos);
+            if (digitsBackend.lastNanos > 0) {
+                addSample("digits", digitsBackend.lastNanos);
+            }
+            addSample("consensus", frameEnd - consensusStart);
+
+            if (accepted) {
+                result.accepted = true;
+                result.acceptedReading = consensus.getMostFrequent();
+                result.correct = Math.abs(Double.parseDouble(result.acceptedReading) - label.reading) < 1e-6;
+                result.framesToAccept = result.frames;
+                result.processingMsToAccept = processingNanos / 1e6;
+                result.capturedMsToAccept = (recording.timestampNanos(recording.getPosition())
+                        - recording.timestampNanos(0)) / 1e6;
+                break;
+            }
+        }
+        result.allocatedBytes = allocatedBytes() - allocatedBefore;
+        analyzer.close();
+        return result;
+    }
+
+    private void addSample(String stage, long nanos) {
+        long[] samples = stageSamples.get(stage);
+        int count = stageCounts.get(stage);
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+            stageSamples.put(stage, samples);
+        }
+        samples[count] = nanos;
+        stageCounts.put(stage, count + 1);
+    }
+
+    private void summarize(Report report, long totalFrames) {
+        report.sequences = report.results.size();
+        int framesToAccept = 0;
+        double processingMs = 0;
+        double capturedMs = 0;
+        for (SequenceResult result : report.results) {
+            if (!result.accepted) continue;
+            report.accepted++;
+            if (!result.correct) report.wrongAccepts++;
+            framesToAccept += result.framesToAccept;
+            processingMs += result.processingMsToAccept;
+            capturedMs += result.capturedMsToAccept;
+        }
+        if (report.accepted > 0) {
+            report.wrongAcceptRate = (double) report.wrongAccepts / report.accepted;
+            report.meanFramesToAccept = (double) framesToAccept / report.accepted;
+            report.meanProcessingMsToAccept = processingMs / report.accepted;
+            report.meanCapturedMsToAccept = capturedMs / report.accepted;
+        }
+        if (totalFrames > 0) {
+            report.allocatedBytesPerFrame = (double) report.allocatedBytes / totalFrames;
+        }
+
+        for (String stage : STAGES) {
+            int count = stageCounts.get(stage);
+            long[] samples = Arrays.copyOf(stageSamples.get(stage), count);
+            Arrays.sort(samples);
+            StageLatency latency = new StageLatency();
+            latency.count = count;
+            if (count > 0) {
+                latency.p50Ms = percentile(samples, 0.50);
+                latency.p90Ms = percentile(samples, 0.90);
+                latency.p99Ms = percentile(samples, 0.99);
+                latency.maxMs = samples[count - 1] / 1e6;
+            }
+            report.stages.put(stage, latency);
+        }
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
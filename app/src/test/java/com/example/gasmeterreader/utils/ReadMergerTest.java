@@ -0,0 +1,56 @@
+package com.example.gasmeterreader.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.gasmeterreader.entities.Building;
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class ReadMergerTest {
+
+    @Test
+    public void newBuildingsFollowFirstSeenCenters() {
+        // Centers out of order and interleaved, as a server may send them
+        List<Read> remote = Arrays.asList(
+                ReadFixtures.read(1, 1005, 0, 0), ReadFixtures.read(2, 1001, 0, 0),
+                ReadFixtures.read(3, 1005, 1, 0), ReadFixtures.read(4, 1003, 0, 0),
+                ReadFixtures.read(5, 1001, 1, 0));
+
+        ReadMerger.Result result = ReadMerger.merge(remote, Collections.emptyMap(),
+                new HashSet<>(Collections.singletonList(1003)));
+
+        assertEquals(Arrays.asList(1005, 1001), centers(result.getNewBuildings()));
+        assertEquals(5, result.getUpserts().size());
+    }
+
+    @Test
+    public void everyCenterOfALongRouteGetsOneBuilding() {
+        List<Read> route = ReadFixtures.route(20_000, 7);
+        List<Integer> expected = new ArrayList<>();
+        for (Read read : route) {
+            if (!expected.contains(read.getCenter())) {
+                expected.add(read.getCenter());
+            }
+        }
+
+        ReadMerger.Result result = ReadMerger.merge(route, Collections.emptyMap(), new HashSet<>());
+
+        assertEquals(expected, centers(result.getNewBuildings()));
+    }
+
+    private static List<Integer> centers(List<Building> buildings) {
+        List<Integer> centers = new ArrayList<>();
+        for (Building building : buildings) {
+            centers.add(building.getCenter());
+        }
+        return centers;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.gasmeterreader.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ReadNavigatorTest {
+
+    @Test
+    public void walksInOrderNotListOrder() {
+        ReadCursor cursor = new ReadCursor(
+                new ReadNavigator(Arrays.asList(read(1, 3, 0), read(2, 1, 0), read(3, 2, 0))));
+
+        assertEquals(2, cursor.getCurrent().getUser_id());
+        assertEquals(3, cursor.getNext().getUser_id());
+        cursor.moveTo(2);
+        assertEquals(1, cursor.getCurrent().getUser_id());
+        assertNull(cursor.getNext());
+    }
+
+    @Test
+    public void findsReadsFromAnotherCopyByUserId() {
+        ReadCursor cursor = new ReadCursor(new ReadNavigator(Arrays.asList(read(10, 1, 0), read(20, 2, 0))));
+
+        assertEquals(1, cursor.moveTo(read(20, 2, 0)));
+        assertEquals(1, cursor.getCurrentIndex());
+        assertEquals(-1, cursor.moveTo(read(30, 3, 0)));
+        assertEquals(1, cursor.getCurrentIndex());
+    }
+
+    @Test
+    public void cursorsOnOneNavigatorMoveIndependently() {
+        ReadNavigator navigator = new ReadNavigator(Arrays.asList(read(1, 1, 0), read(2, 2, 0), read(3, 3, 0)));
+        ReadCursor reading = new ReadCursor(navigator);
+        ReadCursor camera = new ReadCursor(navigator);
+
+        camera.moveTo(2);
+        assertEquals(0, reading.getCurrentIndex());
+        assertEquals(2, reading.getNext().getUser_id());
+
+        // What one screen enters, the other sees as done
+        Read entered = reading.getCurrent();
+        entered.setCurrent_read(1234);
+        navigator.update(entered);
+        assertEquals(1, camera.getNavigator().firstUnread());
+        assertEquals(2, camera.getCurrentIndex());
+    }
+
+    @Test
+    public void nextUnreadFollowsEnteredValues() {
+        List<Read> reads = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            reads.add(read(i, i, i < 150 ? 1000 + i : 0));
+        }
+        ReadNavigator navigator = new ReadNavigator(reads);
+        assertEquals(150, navigator.firstUnread());
+        assertEquals(150, navigator.getDoneCount());
+
+        Read entered = navigator.get(150);
+        entered.setCurrent_read(1234);
+        navigator.update(entered);
+        assertEquals(151, navigator.firstUnread());
+        assertEquals(49, navigator.getUnreadCount());
+
+        Read cleared = navigator.get(10);
+        cleared.setCurrent_read(0);
+        navigator.update(cleared);
+        assertEquals(10, navigator.firstUnread());
+        assertEquals(151, navigator.nextUnread(11));
+        assertEquals(150, navigator.getDoneCount());
+    }
+
+    @Test
+    public void updatingTwiceCountsOnce() {
+        ReadNavigator navigator = new ReadNavigator(Arrays.asList(read(1, 1, 0), read(2, 2, 0)));
+        Read read = navigator.get(0);
+        read.setCurrent_read(5);
+        navigator.update(read);
+        read.setCurrent_read(6);
+        navigator.update(read);
+
+        assertEquals(1, navigator.getDoneCount());
+        assertFalse(navigator.isComplete());
+        navigator.get(1).setCurrent_read(7);
+        navigator.update(navigator.get(1));
+        assertTrue(navigator.isComplete());
+        assertEquals(-1, navigator.firstUnread());
+    }
+
+    @Test
+    public void emptyBuildingHasNoCurrentRead() {
+        ReadNavigator navigator = new ReadNavigator(new ArrayList<>());
+        ReadCursor cursor = new ReadCursor(navigator);
+
+        assertEquals(-1, cursor.getCurrentIndex());
+        assertNull(cursor.getCurrent());
+        assertNull(cursor.getNext());
+        assertNull(cursor.getPrevious());
+        assertEquals(-1, navigator.firstUnread());
+        assertTrue(navigator.isComplete());
+    }
+
+    @Test
+    public void readsListIsStable() {
+        ReadNavigator navigator = new ReadNavigator(Arrays.asList(read(1, 1, 0)));
+
+        assertSame(navigator.getReads(), navigator.getReads());
+    }
+
+    private static Read read(int userId, int order, double currentRead) {
+        return ReadFixtures.read(userId, 1, order, currentRead);
+    }
+}
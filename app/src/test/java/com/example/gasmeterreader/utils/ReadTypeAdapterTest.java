@@ -0,0 +1,110 @@
+package com.example.gasmeterreader.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks {@link ReadTypeAdapter} against Gson's reflective adapter, the format the server
+ * and the stored JSON were written in, minus the fields that never leave the device.
+ */
+public class ReadTypeAdapterTest {
+    private static final Type READ_LIST = new TypeToken<List<Read>>() {}.getType();
+
+    /** The format before the hand-written adapter, without the local upload bookkeeping. */
+    private static final Gson REFLECTIVE = new GsonBuilder()
+            .setExclusionStrategies(new ExclusionStrategy() {
+                @Override
+                public boolean shouldSkipField(FieldAttributes field) {
+                    return field.getDeclaringClass() == Read.class
+                            && (field.getName().equals("dirty") || field.getName().equals("sync_version"));
+                }
+
+                @Override
+                public boolean shouldSkipClass(Class<?> clazz) {
+                    return false;
+                }
+            })
+            .create();
+    /** Every field, to compare parsed reads by value. */
+    private static final Gson ALL_FIELDS = new Gson();
+
+    @Test
+    public void writesWhatReflectionWrites() {
+        Read full = new Read(100_123, "חיפה", "הרצל", 12, "א", 7, "משה \"כהן\"", "סגור", 4,
+                2_345_678, 1234.5, 1240.25, 1001, "שורה\nשנייה");
+        full.wasRead();
+        Read sparse = new Read(7, null, null, 0, null, 0, null, null, 0, 0, 0, 0, 0, null);
+        List<Read> reads = Arrays.asList(full, sparse, null, ReadFixtures.read(100_001, 1002, 3, 0));
+
+        assertEquals(REFLECTIVE.toJson(full, Read.class), JsonAdapters.GSON.toJson(full, Read.class));
+        assertEquals(REFLECTIVE.toJson(sparse, Read.class), JsonAdapters.GSON.toJson(sparse, Read.class));
+        assertEquals(REFLECTIVE.toJson(reads, READ_LIST), JsonAdapters.READ_LIST.toJson(reads));
+        assertEquals("null", JsonAdapters.GSON.toJson(null, Read.class));
+    }
+
+    @Test
+    public void neverSendsUploadBookkeeping() {
+        Read edited = ReadFixtures.read(100_001, 1002, 3, 1234);
+        edited.setDirty(true);
+        edited.setSync_version(5);
+
+        String json = JsonAdapters.GSON.toJson(edited, Read.class);
+        assertFalse(json.contains("dirty"));
+        assertFalse(json.contains("sync_version"));
+    }
+
+    @Test
+    public void readsWhatReflectionReads() {
+        String[] documents = {
+                // Every field
+                "{\"user_id\":100123,\"city\":\"חיפה\",\"street\":\"הרצל\",\"house_number\":12,\"entry\":\"א\","
+                        + "\"order\":7,\"user_name\":\"משה כהן\",\"user_status\":\"סגור\",\"apartment\":4,"
+                        + "\"meter_id\":2345678,\"last_read\":1234.5,\"current_read\":1240.25,\"center\":1001,"
+                        + "\"comment\":\"הערה\",\"isRead\":true}",
+                // Explicit nulls, for strings and numbers alike
+                "{\"user_id\":5,\"city\":null,\"street\":null,\"house_number\":null,\"entry\":null,"
+                        + "\"user_name\":null,\"user_status\":null,\"last_read\":null,\"comment\":null,\"isRead\":null}",
+                // Absent fields
+                "{\"user_id\":6,\"center\":1001}",
+                // Unknown fields, nested or not, are skipped
+                "{\"user_id\":7,\"extra\":{\"a\":[1,2,{\"b\":null}]},\"street\":\"ויצמן\",\"more\":\"x\"}",
+                // Lenient scalars, as Gson's own adapters accept them
+                "{\"user_id\":\"8\",\"city\":true,\"last_read\":\"12.5\",\"isRead\":\"true\"}",
+                // Upload bookkeeping from the server is ignored
+                "{\"user_id\":9,\"dirty\":true,\"sync_version\":4,\"current_read\":10}",
+                "{}",
+        };
+        for (String json : documents) {
+            Read expected = REFLECTIVE.fromJson(json, Read.class);
+            Read actual = JsonAdapters.GSON.fromJson(json, Read.class);
+            assertEquals(json, ALL_FIELDS.toJson(expected), ALL_FIELDS.toJson(actual));
+        }
+        assertNull(JsonAdapters.GSON.fromJson("null", Read.class));
+    }
+
+    @Test
+    public void readsListsWhatReflectionReads() {
+        List<Read> route = ReadFixtures.route(500, 3);
+        String json = REFLECTIVE.toJson(route, READ_LIST);
+
+        List<Read> expected = REFLECTIVE.fromJson(json, READ_LIST);
+        List<Read> actual = JsonAdapters.GSON.fromJson(json, READ_LIST);
+        assertEquals(ALL_FIELDS.toJson(expected), ALL_FIELDS.toJson(actual));
+        assertEquals(json, JsonAdapters.READ_LIST.toJson(actual));
+    }
+}
@@ -0,0 +1,28 @@
+// JMH benchmarks for the hot paths in :core.
+//   ./gradlew :benchmarks:jmh                          run everything
+//   ./gradlew :benchmarks:jmh -Pjmh.includes=EntityUtils  run matching benchmarks only
+// Results are written as JSON to build/reports/jmh/results.json.
+plugins {
+    id("java")
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    jmh(project(":core"))
+    jmh(testFixtures(project(":core")))
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    (project.findProperty("jmh.includes") as String?)?.let { includes.set(listOf(it)) }
+}
@@ -0,0 +1,50 @@
+package com.example.gasmeterreader.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic inputs shaped like real model outputs. Routes come from
+ * {@link com.example.gasmeterreader.fixtures.ReadFixtures}.
+ */
+final class BenchmarkData {
+    static final int NUM_ELEMENTS = 8400;
+    static final List<String> BOX_LABELS = java.util.Arrays.asList("data", "id");
+    static final List<String> DIGIT_LABELS = java.util.Arrays.asList(
+            "0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "dot");
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * A flattened [1, 4 + classes, 8400] output with background noise below the
+     * confidence threshold and a cluster of overlapping candidates around each object.
+     */
+    static float[] outputTensor(int numClasses, int objects, long seed) {
+        Random random = new Random(seed);
+        int numChannel = 4 + numClasses;
+        float[] output = new float[numChannel * NUM_ELEMENTS];
+        for (int c = 0; c < NUM_ELEMENTS; c++) {
+            output[c] = random.nextFloat();
+            output[c + NUM_ELEMENTS] = random.nextFloat();
+            output[c + NUM_ELEMENTS * 2] = random.nextFloat() * 0.2f;
+            output[c + NUM_ELEMENTS * 3] = random.nextFloat() * 0.2f;
+            for (int j = 4; j < numChannel; j++) {
+                output[c + NUM_ELEMENTS * j] = random.nextFloat() * 0.25f;
+            }
+        }
+        for (int object = 0; object < objects; object++) {
+            float cx = 0.1f + 0.8f * (object + 0.5f) / objects;
+            int cls = random.nextInt(numClasses);
+            for (int k = 0; k < 12; k++) {
+                int c = random.nextInt(NUM_ELEMENTS);
+                output[c] = cx + (random.nextFloat() - 0.5f) * 0.01f;
+                output[c + NUM_ELEMENTS] = 0.5f + (random.nextFloat() - 0.5f) * 0.01f;
+                output[c + NUM_ELEMENTS * 2] = 0.6f / objects;
+                output[c + NUM_ELEMENTS * 3] = 0.3f;
+                output[c + NUM_ELEMENTS * (4 + cls)] = 0.5f + random.nextFloat() * 0.45f;
+            }
+        }
+        return output;
+    }
+}
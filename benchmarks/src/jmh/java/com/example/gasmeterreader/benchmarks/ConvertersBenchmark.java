@@ -0,0 +1,58 @@
+package com.example.gasmeterreader.benchmarks;
+
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+import com.example.gasmeterreader.utils.Converters;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Encoding and decoding one building's read list, as Room does on every load and save. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConvertersBenchmark {
+    @Param({"50", "500"})
+    public int reads;
+
+    private List<Read> readList;
+    private String json;
+
+    @Setup
+    public void setUp() {
+        readList = ReadFixtures.route(reads, 7);
+        json = Converters.fromReadList(readList);
+    }
+
+    @Benchmark
+    public String fromReadList() {
+        return Converters.fromReadList(readList);
+    }
+
+    @Benchmark
+    public List<Read> toReadList() {
+        return Converters.toReadList(json);
+    }
+
+    /** The previous converter: a new Gson and reflective adapter on every call. */
+    @Benchmark
+    public String fromReadListReflective() {
+        return new Gson().toJson(readList, new TypeToken<List<Read>>() {}.getType());
+    }
+
+    @Benchmark
+    public List<Read> toReadListReflective() {
+        return new Gson().fromJson(json, new TypeToken<List<Read>>() {}.getType());
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.gasmeterreader.benchmarks;
+
+import com.example.gasmeterreader.ml.BoundingBox;
+import com.example.gasmeterreader.ml.DetectionPostProcessor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DetectionBenchmark {
+    private DetectionPostProcessor boxPostProcessor;
+    private DetectionPostProcessor digitsPostProcessor;
+    private float[] boxOutput;
+    private float[] digitsOutput;
+    private List<BoundingBox> digitCandidates;
+    private BoundingBox first;
+    private BoundingBox second;
+
+    @Setup
+    public void setUp() {
+        boxPostProcessor = new DetectionPostProcessor(BenchmarkData.BOX_LABELS,
+                4 + BenchmarkData.BOX_LABELS.size(), BenchmarkData.NUM_ELEMENTS);
+        digitsPostProcessor = new DetectionPostProcessor(BenchmarkData.DIGIT_LABELS,
+                4 + BenchmarkData.DIGIT_LABELS.size(), BenchmarkData.NUM_ELEMENTS);
+        boxOutput = BenchmarkData.outputTensor(BenchmarkData.BOX_LABELS.size(), 2, 1);
+        digitsOutput = BenchmarkData.outputTensor(BenchmarkData.DIGIT_LABELS.size(), 7, 2);
+
+        // Recreate the overlapping clusters that suppression collapsed into these boxes
+        List<BoundingBox> boxes = digitsPostProcessor.bestBox(digitsOutput);
+        digitCandidates = new ArrayList<>();
+        first = boxes.get(0);
+        second = boxes.get(boxes.size() - 1);
+        for (int i = 0; i < 12; i++) {
+            for (BoundingBox box : boxes) {
+                digitCandidates.add(new BoundingBox(box.getX1(), box.getY1(), box.getX2(), box.getY2(),
+                        box.getCx(), box.getCy(), box.getW(), box.getH(),
+                        box.getCnf() - i * 0.001f, box.getCls(), box.getClsName()));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<BoundingBox> bestBoxBoxModel() {
+        return boxPostProcessor.bestBox(boxOutput);
+    }
+
+    @Benchmark
+    public List<BoundingBox> bestBoxDigitsModel() {
+        return digitsPostProcessor.bestBox(digitsOutput);
+    }
+
+    @Benchmark
+    public List<BoundingBox> applyNMS() {
+        return digitsPostProcessor.applyNMS(digitCandidates);
+    }
+
+    @Benchmark
+    public float calculateIoU() {
+        return DetectionPostProcessor.calculateIoU(first, second);
+    }
+}
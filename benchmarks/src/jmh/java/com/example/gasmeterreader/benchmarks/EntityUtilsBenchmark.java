@@ -0,0 +1,37 @@
+package com.example.gasmeterreader.benchmarks;
+
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+import com.example.gasmeterreader.utils.EntityUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EntityUtilsBenchmark {
+    @Param({"1000", "10000", "100000", "400000"})
+    public int reads;
+
+    private List<Read> route;
+
+    @Setup
+    public void setUp() {
+        route = ReadFixtures.route(reads, 42);
+    }
+
+    @Benchmark
+    public List<Read> sortReadsByOrder() {
+        return EntityUtils.sortReadsByOrder(route);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.gasmeterreader.benchmarks;
+
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+import com.example.gasmeterreader.utils.ReadMerger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A first sync: every read is new and every center needs a building, so each read goes
+ * through the grouping of reads into new buildings. Merging is idempotent on these reads,
+ * so the same route is merged every invocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadMergerBenchmark {
+    @Param({"1000", "10000", "100000", "400000"})
+    public int reads;
+
+    private List<Read> route;
+
+    @Setup
+    public void setUp() {
+        route = ReadFixtures.route(reads, 42);
+    }
+
+    @Benchmark
+    public ReadMerger.Result mergeNewRoute() {
+        return ReadMerger.merge(route, Collections.emptyMap(), new HashSet<>());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.gasmeterreader.benchmarks;
+
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+import com.example.gasmeterreader.utils.ReadSearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** A meter number typed digit by digit, one search per keystroke, as the search box sends them. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadSearchIndexBenchmark {
+    @Param({"300", "1000"})
+    public int reads;
+
+    private List<Read> building;
+    private ReadSearchIndex index;
+    private String[] keystrokes;
+
+    @Setup
+    public void setUp() {
+        building = ReadFixtures.route(reads, 42);
+        index = new ReadSearchIndex(building);
+        String meter = String.valueOf(building.get(reads / 2).getMeter_id());
+        keystrokes = new String[meter.length()];
+        for (int i = 0; i < keystrokes.length; i++) {
+            keystrokes[i] = meter.substring(0, i + 1);
+        }
+    }
+
+    /** The scan the adapters did on every keystroke, two strings per read. */
+    @Benchmark
+    public int linearScan() {
+        int found = 0;
+        for (String query : keystrokes) {
+            List<Read> matches = new ArrayList<>();
+            for (Read read : building) {
+                if (String.valueOf(read.getApartment()).contains(query)
+                        || String.valueOf(read.getMeter_id()).contains(query)) {
+                    matches.add(read);
+                }
+            }
+            found += matches.size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int indexed() {
+        int found = 0;
+        index.search("");
+        for (String query : keystrokes) {
+            found += index.search(query);
+        }
+        return found;
+    }
+
+    @Benchmark
+    public ReadSearchIndex build() {
+        return new ReadSearchIndex(building);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.gasmeterreader.benchmarks;
+
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+import com.example.gasmeterreader.utils.ReadMerger;
+import com.example.gasmeterreader.utils.ReadStreamReader;
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A later sync of a 50k-read route already on the device, with 100 readings not yet
+ * uploaded: the full route sent again against a delta of the 1,000 reads the server
+ * changed. Each is parsed in batches and merged against the local reads, as the sync does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReadSyncBenchmark {
+    private static final int ROUTE_SIZE = 50_000;
+    private static final int DIRTY_READS = 100;
+    private static final int DELTA_SIZE = 1_000;
+    // Api.BATCH_SIZE in :app
+    private static final int BATCH_SIZE = 500;
+
+    private final Map<Integer, Read> local = new HashMap<>();
+    private final Set<Integer> knownCenters = new HashSet<>();
+    private String fullJson;
+    private String deltaJson;
+
+    @Setup
+    public void setUp() {
+        Gson gson = new Gson();
+        List<Read> route = ReadFixtures.route(ROUTE_SIZE, 1);
+        fullJson = gson.toJson(route);
+        for (Read read : ReadFixtures.route(ROUTE_SIZE, 1)) {
+            local.put(read.getUser_id(), read);
+            knownCenters.add(read.getCenter());
+        }
+        for (int i = 0; i < DIRTY_READS; i++) {
+            Read dirty = local.get(route.get(i * 7).getUser_id());
+            dirty.setCurrent_read(5000 + i);
+            dirty.setRead(true);
+            dirty.setDirty(true);
+        }
+        List<Read> changed = new ArrayList<>(DELTA_SIZE);
+        for (int i = 0; i < DELTA_SIZE; i++) {
+            Read read = route.get(i * 7);
+            changed.add(new Read(read.getUser_id(), read.getCity(), read.getStreet(),
+                    read.getHouse_number(), read.getEntry(), read.getOrder(), read.getUser_name(),
+                    read.getUser_status(), read.getApartment(), read.getMeter_id(),
+                    read.getLast_read() + 1, 0, read.getCenter(), "עודכן"));
+        }
+        deltaJson = gson.toJson(changed);
+    }
+
+    @Benchmark
+    public int fullRoute() throws IOException {
+        return sync(fullJson);
+    }
+
+    @Benchmark
+    public int delta() throws IOException {
+        return sync(deltaJson);
+    }
+
+    private int sync(String json) throws IOException {
+        int[] written = new int[1];
+        ReadStreamReader.readBatches(new StringReader(json), BATCH_SIZE,
+                batch -> written[0] += ReadMerger.merge(batch, local, knownCenters).getUpserts().size());
+        return written[0];
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.gasmeterreader.benchmarks;
+
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.fixtures.ReadFixtures;
+import com.example.gasmeterreader.utils.ReadMerger;
+import com.example.gasmeterreader.utils.ReadStreamReader;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and merging a downloaded route, the old way, into one list merged whole, against
+ * the sync's way, in batches merged as they are parsed. Run with {@code -prof gc} for the
+ * bytes each allocates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RouteIngestBenchmark {
+    // Api.BATCH_SIZE in :app
+    private static final int BATCH_SIZE = 500;
+
+    @Param({"10000", "100000"})
+    public int reads;
+
+    private final Gson gson = new Gson();
+    private String json;
+
+    @Setup
+    public void setUp() {
+        json = gson.toJson(ReadFixtures.route(reads, 1));
+    }
+
+    @Benchmark
+    public int materialized() {
+        List<Read> route = gson.fromJson(new StringReader(json),
+                TypeToken.getParameterized(List.class, Read.class).getType());
+        return ReadMerger.merge(route, Collections.emptyMap(), new HashSet<>()).getUpserts().size();
+    }
+
+    @Benchmark
+    public int streamed() throws IOException {
+        Set<Integer> knownCenters = new HashSet<>();
+        int[] written = new int[1];
+        ReadStreamReader.readBatches(new StringReader(json), BATCH_SIZE, batch -> {
+            ReadMerger.Result result = ReadMerger.merge(batch, Collections.emptyMap(), knownCenters);
+            for (Read read : result.getUpserts()) {
+                knownCenters.add(read.getCenter());
+            }
+            written[0] += result.getUpserts().size();
+        });
+        return written[0];
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.gasmeterreader.benchmarks;
+
+import com.example.gasmeterreader.utils.StringsUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StringsUtilsBenchmark {
+    // Digit strings as the detector spells them, with and without a detected dot
+    private static final String[] DETECTIONS = {
+            "012345", "12345", "1234dot5", "123dot45", "1234dot56", "99999", "1dotdot2"};
+    private static final String LAST_READ = "1230.2";
+
+    private HashMap<String, Integer> counter;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        counter = new HashMap<>();
+        for (int i = 0; i < 12; i++) {
+            StringsUtils.addString("1234." + (i % 4), counter);
+        }
+    }
+
+    @Benchmark
+    public String fixData() {
+        next = (next + 1) % DETECTIONS.length;
+        return StringsUtils.fixData(DETECTIONS[next], LAST_READ);
+    }
+
+    @Benchmark
+    public HashMap<String, Integer> addString() {
+        next = (next + 1) % 4;
+        StringsUtils.addString("1234." + next, counter);
+        return counter;
+    }
+
+    @Benchmark
+    public String getMostFrequentString() {
+        return StringsUtils.getMostFrequentString(counter);
+    }
+}
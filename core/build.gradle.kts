@@ -0,0 +1,31 @@
+import org.jetbrains.kotlin.gradle.tasks.KotlinCompile
+
+// Android-free entities, parsing and detection post-processing, shared by :app and :benchmarks.
+plugins {
+    id("java-library")
+    // Route and read fixtures for the tests of :app and for :benchmarks
+    id("java-test-fixtures")
+    alias(libs.plugins.jetbrains.kotlin.jvm)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+tasks.withType<KotlinCompile>().configureEach {
+    kotlinOptions {
+        jvmTarget = "1.8"
+    }
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    // Room in :app matches entity constructor parameters to columns by name, which it can
+    // only read from compiled classes when the names are kept.
+    options.compilerArgs.add("-parameters")
+}
+
+dependencies {
+    api(libs.gson)
+    api(libs.room.common)
+}
@@ -1,8 +1,12 @@
 package com.example.gasmeterreader.entities;
 
 import androidx.room.Entity;
+import androidx.room.Ignore;
 import androidx.room.PrimaryKey;
 
+import com.example.gasmeterreader.utils.ReadNavigator;
+import com.example.gasmeterreader.utils.ReadSearchIndex;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -13,7 +17,14 @@ public class Building {
     private final int buildingNumber;
     @PrimaryKey
     private final int center;
+    // Reads live in their own table, the repository fills this in
+    @Ignore
     private List<Read> readList;
+    // Built on first use; shared by every screen holding this instance, each with its own cursor
+    @Ignore
+    private ReadNavigator navigator;
+    @Ignore
+    private ReadSearchIndex searchIndex;
     private boolean isComplete;
 
     public Building(String address, String city, int buildingNumber, int center) {
@@ -47,6 +58,24 @@ public class Building {
 
     public void setReadList(List<Read> readList) {
         this.readList = readList;
+        navigator = null;
+        searchIndex = null;
+    }
+
+    /** The reads in walking order, for moving between them without scanning the list. */
+    public ReadNavigator getNavigator() {
+        if (navigator == null) {
+            navigator = new ReadNavigator(readList);
+        }
+        return navigator;
+    }
+
+    /** Search over the reads in {@link #getNavigator()} order, built on first use and shared like it. */
+    public ReadSearchIndex getSearchIndex() {
+        if (searchIndex == null) {
+            searchIndex = new ReadSearchIndex(getNavigator().getReads());
+        }
+        return searchIndex;
     }
 
     public boolean isComplete() {
@@ -59,6 +88,8 @@ public class Building {
 
     public void addRead(Read read){
         this.readList.add(read);
+        navigator = null;
+        searchIndex = null;
     }
 
     public void checkCompleted(){
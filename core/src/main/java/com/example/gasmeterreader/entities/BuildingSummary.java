@@ -0,0 +1,51 @@
+package com.example.gasmeterreader.entities;
+
+/** A building with its read counts, without the reads themselves. */
+public class BuildingSummary {
+    private final int center;
+    private final String address;
+    private final String city;
+    private final int buildingNumber;
+    private final boolean isComplete;
+    private final int totalReads;
+    private final int doneReads;
+
+    public BuildingSummary(int center, String address, String city, int buildingNumber,
+                           boolean isComplete, int totalReads, int doneReads) {
+        this.center = center;
+        this.address = address;
+        this.city = city;
+        this.buildingNumber = buildingNumber;
+        this.isComplete = isComplete;
+        this.totalReads = totalReads;
+        this.doneReads = doneReads;
+    }
+
+    public int getCenter() {
+        return center;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public int getBuildingNumber() {
+        return buildingNumber;
+    }
+
+    public boolean isComplete() {
+        return isComplete;
+    }
+
+    public int getTotalReads() {
+        return totalReads;
+    }
+
+    public int getDoneReads() {
+        return doneReads;
+    }
+}
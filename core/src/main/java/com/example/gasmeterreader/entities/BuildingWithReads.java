@@ -0,0 +1,19 @@
+package com.example.gasmeterreader.entities;
+
+import androidx.room.Embedded;
+import androidx.room.Relation;
+
+import java.util.List;
+
+public class BuildingWithReads {
+    @Embedded
+    public Building building;
+
+    @Relation(parentColumn = "center", entityColumn = "center")
+    public List<Read> reads;
+
+    public Building toBuilding() {
+        building.setReadList(reads);
+        return building;
+    }
+}
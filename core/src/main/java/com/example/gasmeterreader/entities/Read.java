@@ -1,6 +1,19 @@
 package com.example.gasmeterreader.entities;
 
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+@Entity(tableName = "read",
+        foreignKeys = @ForeignKey(entity = Building.class,
+                parentColumns = "center",
+                childColumns = "center",
+                onDelete = ForeignKey.CASCADE),
+        indices = @Index("center"))
 public class Read {
+    @PrimaryKey
     private final int user_id;
     private final String city;
     private final String street;
@@ -16,6 +29,12 @@ public class Read {
     private final int center;
     private final String comment;
     private boolean isRead;
+    // Entered locally and not yet accepted by the server
+    @ColumnInfo(defaultValue = "0")
+    private boolean dirty;
+    // Bumped by every local edit, so an upload only clears dirty for the edit it carried
+    @ColumnInfo(defaultValue = "0")
+    private int sync_version;
 
     public Read(int user_id, String city, String street, int house_number,
                 String entry, int order, String user_name, String user_status, int apartment,
@@ -105,4 +124,24 @@ public class Read {
         isRead = true;
     }
 
+    public void setRead(boolean read) {
+        isRead = read;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public void setDirty(boolean dirty) {
+        this.dirty = dirty;
+    }
+
+    public int getSync_version() {
+        return sync_version;
+    }
+
+    public void setSync_version(int sync_version) {
+        this.sync_version = sync_version;
+    }
+
 }
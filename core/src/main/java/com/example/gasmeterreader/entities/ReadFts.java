@@ -0,0 +1,70 @@
+package com.example.gasmeterreader.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.PrimaryKey;
+
+/**
+ * The searchable text of a read, for the route-wide search. Written by the sync next to the
+ * read it describes and keyed by its user_id, so a hit joins straight back to the read.
+ * Numbers are stored as text so a serial can be found by the digits it starts with.
+ */
+@Fts4
+@Entity(tableName = "read_fts")
+public class ReadFts {
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private final int rowid;
+    private final String meter_id;
+    private final String user_name;
+    private final String street;
+    private final String house_number;
+    private final String apartment;
+    private final String city;
+
+    public ReadFts(int rowid, String meter_id, String user_name, String street,
+                   String house_number, String apartment, String city) {
+        this.rowid = rowid;
+        this.meter_id = meter_id;
+        this.user_name = user_name;
+        this.street = street;
+        this.house_number = house_number;
+        this.apartment = apartment;
+        this.city = city;
+    }
+
+    public static ReadFts of(Read read) {
+        return new ReadFts(read.getUser_id(), String.valueOf(read.getMeter_id()), read.getUser_name(),
+                read.getStreet(), String.valueOf(read.getHouse_number()),
+                String.valueOf(read.getApartment()), read.getCity());
+    }
+
+    public int getRowid() {
+        return rowid;
+    }
+
+    public String getMeter_id() {
+        return meter_id;
+    }
+
+    public String getUser_name() {
+        return user_name;
+    }
+
+    public String getStreet() {
+        return street;
+    }
+
+    public String getHouse_number() {
+        return house_number;
+    }
+
+    public String getApartment() {
+        return apartment;
+    }
+
+    public String getCity() {
+        return city;
+    }
+}
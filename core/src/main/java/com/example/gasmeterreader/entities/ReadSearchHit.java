@@ -0,0 +1,72 @@
+package com.example.gasmeterreader.entities;
+
+/**
+ * A read found by the route-wide search, with what a result row shows and the score it was
+ * ranked by.
+ */
+public class ReadSearchHit {
+    private final int user_id;
+    private final int center;
+    private final String city;
+    private final String street;
+    private final int house_number;
+    private final int apartment;
+    private final String user_name;
+    private final int meter_id;
+    private final boolean isRead;
+    private final double score;
+
+    public ReadSearchHit(int user_id, int center, String city, String street, int house_number,
+                         int apartment, String user_name, int meter_id, boolean isRead, double score) {
+        this.user_id = user_id;
+        this.center = center;
+        this.city = city;
+        this.street = street;
+        this.house_number = house_number;
+        this.apartment = apartment;
+        this.user_name = user_name;
+        this.meter_id = meter_id;
+        this.isRead = isRead;
+        this.score = score;
+    }
+
+    public int getUser_id() {
+        return user_id;
+    }
+
+    public int getCenter() {
+        return center;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getStreet() {
+        return street;
+    }
+
+    public int getHouse_number() {
+        return house_number;
+    }
+
+    public int getApartment() {
+        return apartment;
+    }
+
+    public String getUser_name() {
+        return user_name;
+    }
+
+    public int getMeter_id() {
+        return meter_id;
+    }
+
+    public boolean isRead() {
+        return isRead;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
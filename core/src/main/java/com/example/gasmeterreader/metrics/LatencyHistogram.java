@@ -0,0 +1,80 @@
+package com.example.gasmeterreader.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Latency counts over fixed buckets, preallocated so recording never allocates.
+ * Percentiles are reported as the upper bound of their bucket, capped at the maximum.
+ */
+public class LatencyHistogram {
+    // Bucket upper bounds in microseconds; the last bucket catches everything slower
+    private static final long[] BUCKET_BOUNDS_MICROS = {
+            50, 100, 250, 500, 1_000, 2_000, 3_000, 5_000, 7_500, 10_000, 15_000, 20_000,
+            30_000, 50_000, 75_000, 100_000, 150_000, 250_000, 500_000, 1_000_000, Long.MAX_VALUE};
+
+    private final long[] counts = new long[BUCKET_BOUNDS_MICROS.length];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    public synchronized void record(long nanos) {
+        long micros = nanos / 1_000;
+        int bucket = 0;
+        while (micros > BUCKET_BOUNDS_MICROS[bucket]) {
+            bucket++;
+        }
+        counts[bucket]++;
+        count++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized double getMeanMillis() {
+        return count == 0 ? 0 : totalNanos / 1e6 / count;
+    }
+
+    public synchronized double getMaxMillis() {
+        return maxNanos / 1e6;
+    }
+
+    /** Upper bound of the bucket holding the given fraction of samples, in milliseconds. */
+    public synchronized double getPercentileMillis(double fraction) {
+        if (count == 0) return 0;
+        long rank = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(BUCKET_BOUNDS_MICROS[bucket] / 1e3, getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /** Copies the bucket counts into {@code out}, which must hold {@link #getBucketCount()} entries. */
+    public synchronized void copyCounts(long[] out) {
+        System.arraycopy(counts, 0, out, 0, counts.length);
+    }
+
+    public static int getBucketCount() {
+        return BUCKET_BOUNDS_MICROS.length;
+    }
+
+    /** Upper bound of a bucket in microseconds, {@link Long#MAX_VALUE} for the last one. */
+    public static long getBucketBoundMicros(int bucket) {
+        return BUCKET_BOUNDS_MICROS[bucket];
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.gasmeterreader.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-stage latency histograms and frame counters for the live recognition pipeline,
+ * from the camera callback to the UI update. Everything is allocated up front so
+ * recording a frame costs a few clock reads and array increments.
+ */
+public class PipelineStats {
+    public static final int CONVERT = 0;
+    public static final int ROTATE = 1;
+    public static final int GRAYSCALE = 2;
+    public static final int LETTERBOX = 3;
+    public static final int BOX_INFERENCE = 4;
+    public static final int CROP = 5;
+    public static final int DIGITS_INFERENCE = 6;
+    public static final int DECODE = 7;
+    public static final int CONSENSUS = 8;
+    public static final int UI_UPDATE = 9;
+    public static final int FRAME = 10;
+
+    private static final String[] STAGE_NAMES = {
+            "convert", "rotate", "grayscale", "letterbox", "box_inference", "crop",
+            "digits_inference", "decode", "consensus", "ui_update", "frame"};
+
+    private static final PipelineStats instance = new PipelineStats();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STAGE_NAMES.length];
+    private final AtomicLong framesIn = new AtomicLong();
+    private final AtomicLong framesSkipped = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+
+    // Only touched from the camera thread
+    private long lastFrameTimestamp;
+    private long frameInterval;
+
+    public static PipelineStats getInstance() {
+        return instance;
+    }
+
+    PipelineStats() {
+        for (int stage = 0; stage < histograms.length; stage++) {
+            histograms[stage] = new LatencyHistogram();
+        }
+    }
+
+    public void record(int stage, long nanos) {
+        histograms[stage].record(nanos);
+    }
+
+    public LatencyHistogram getHistogram(int stage) {
+        return histograms[stage];
+    }
+
+    /**
+     * Counts a frame handed to the analyzer. Frames the camera produced but dropped while
+     * the analyzer was busy are estimated from gaps in the sensor timestamps.
+     */
+    public void frameIn(long sensorTimestampNanos) {
+        framesIn.incrementAndGet();
+        if (lastFrameTimestamp != 0) {
+            long delta = sensorTimestampNanos - lastFrameTimestamp;
+            if (delta > 0 && (frameInterval == 0 || delta < frameInterval)) {
+                frameInterval = delta;
+            }
+            if (frameInterval > 0) {
+                long missed = Math.round((double) delta / frameInterval) - 1;
+                if (missed > 0) {
+                    framesDropped.addAndGet(missed);
+                }
+            }
+        }
+        lastFrameTimestamp = sensorTimestampNanos;
+    }
+
+    /** Counts a frame that reached the analyzer but was closed without being analyzed. */
+    public void frameSkipped() {
+        framesSkipped.incrementAndGet();
+    }
+
+    public long getFramesIn() {
+        return framesIn.get();
+    }
+
+    public long getFramesSkipped() {
+        return framesSkipped.get();
+    }
+
+    public long getFramesDropped() {
+        return framesDropped.get();
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        framesIn.set(0);
+        framesSkipped.set(0);
+        framesDropped.set(0);
+        lastFrameTimestamp = 0;
+        frameInterval = 0;
+    }
+
+    /** One line per stage with p50/p90/max, for the on-screen overlay. */
+    public void appendSummary(StringBuilder out) {
+        out.append(String.format(Locale.US, "in %d  skipped %d  dropped %d%n",
+                getFramesIn(), getFramesSkipped(), getFramesDropped()));
+        for (int stage = 0; stage < histograms.length; stage++) {
+            LatencyHistogram histogram = histograms[stage];
+            if (histogram.getCount() == 0) continue;
+            out.append(String.format(Locale.US, "%-16s p50 %6.1f  p90 %6.1f  max %6.1f ms%n",
+                    STAGE_NAMES[stage],
+                    histogram.getPercentileMillis(0.5),
+                    histogram.getPercentileMillis(0.9),
+                    histogram.getMaxMillis()));
+        }
+    }
+
+    /** Writes counters and every histogram, including raw bucket counts, as JSON. */
+    public void writeJson(Writer out) throws IOException {
+        long[] counts = new long[LatencyHistogram.getBucketCount()];
+        out.write("{\n");
+        out.write(String.format(Locale.US, "  \"framesIn\": %d,\n  \"framesSkipped\": %d,\n  \"framesDropped\": %d,\n",
+                getFramesIn(), getFramesSkipped(), getFramesDropped()));
+        out.write("  \"bucketBoundsMicros\": [");
+        for (int bucket = 0; bucket < counts.length - 1; bucket++) {
+            out.write((bucket == 0 ? "" : ", ") + LatencyHistogram.getBucketBoundMicros(bucket));
+        }
+        out.write("],\n  \"stages\": {\n");
+        for (int stage = 0; stage < histograms.length; stage++) {
+            LatencyHistogram histogram = histograms[stage];
+            histogram.copyCounts(counts);
+            out.write(String.format(Locale.US,
+                    "    \"%s\": {\"count\": %d, \"meanMs\": %.3f, \"p50Ms\": %.3f, \"p90Ms\": %.3f, \"p99Ms\": %.3f, \"maxMs\": %.3f, \"buckets\": [",
+                    STAGE_NAMES[stage], histogram.getCount(), histogram.getMeanMillis(),
+                    histogram.getPercentileMillis(0.5), histogram.getPercentileMillis(0.9),
+                    histogram.getPercentileMillis(0.99), histogram.getMaxMillis()));
+            for (int bucket = 0; bucket < counts.length; bucket++) {
+                out.write((bucket == 0 ? "" : ", ") + counts[bucket]);
+            }
+            out.write(stage == histograms.length - 1 ? "]}\n" : "]},\n");
+        }
+        out.write("  }\n}\n");
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.gasmeterreader.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Startup milestones in milliseconds, each measured from whatever start the caller picked:
+ * the process start for a cold launch, the screen's creation for opening a screen. Kept in
+ * the order they were first recorded; a milestone recorded again keeps its latest value.
+ */
+public class StartupMetrics {
+    public static final String APPLICATION_CREATED = "app_created";
+    public static final String MAIN_FIRST_FRAME_COLD = "main_first_frame_cold";
+    public static final String MAIN_FIRST_FRAME = "main_first_frame";
+    public static final String ANALYZER_LOADED = "analyzer_loaded";
+    public static final String LIVE_FEED_FIRST_ANALYSIS = "live_feed_first_analysis";
+
+    private static final StartupMetrics instance = new StartupMetrics();
+
+    private final Map<String, Long> milestones = new LinkedHashMap<>();
+
+    public static StartupMetrics getInstance() {
+        return instance;
+    }
+
+    StartupMetrics() {
+    }
+
+    public synchronized void record(String milestone, long millis) {
+        milestones.put(milestone, millis);
+    }
+
+    /** Records the milestone unless it already was; returns whether it did. */
+    public synchronized boolean recordOnce(String milestone, long millis) {
+        return milestones.putIfAbsent(milestone, millis) == null;
+    }
+
+    /** The milestone's value, or -1 if it was not reached yet. */
+    public synchronized long get(String milestone) {
+        Long millis = milestones.get(milestone);
+        return millis != null ? millis : -1;
+    }
+
+    public synchronized void clear() {
+        milestones.clear();
+    }
+
+    /** One line per milestone, for the on-screen overlay. */
+    public synchronized void appendSummary(StringBuilder out) {
+        for (Map.Entry<String, Long> milestone : milestones.entrySet()) {
+            out.append(String.format(Locale.US, "%-24s %6d ms%n", milestone.getKey(), milestone.getValue()));
+        }
+    }
+}
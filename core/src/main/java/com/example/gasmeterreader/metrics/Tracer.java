@@ -0,0 +1,164 @@
+package com.example.gasmeterreader.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Begin/end sections and async spans recorded into a fixed-size ring buffer and
+ * exported as Chrome trace-event JSON (chrome://tracing, Perfetto). While tracing is
+ * disabled every call returns after one branch. Section and span names should be
+ * constants so that recording does not allocate.
+ *
+ * <p>Whether a section or span is traced is decided once, when it begins: its end is
+ * recorded if and only if its begin was, even if tracing is switched in between, so the
+ * sink never sees an unbalanced section. Set the sink before enabling tracing.
+ */
+public final class Tracer {
+    /** Receives every event as it is recorded, e.g. to forward it to the platform tracer. */
+    public interface Sink {
+        void beginSection(String name);
+
+        void endSection();
+
+        void beginAsync(String name, int id);
+
+        void endAsync(String name, int id);
+    }
+
+    private static final int CAPACITY = 16_384;
+
+    private static final char BEGIN = 'B';
+    private static final char END = 'E';
+    private static final char ASYNC_BEGIN = 'b';
+    private static final char ASYNC_END = 'e';
+
+    private static volatile boolean enabled;
+    private static volatile Sink sink;
+
+    private static final long[] timestamps = new long[CAPACITY];
+    private static final long[] threadIds = new long[CAPACITY];
+    private static final char[] phases = new char[CAPACITY];
+    private static final String[] names = new String[CAPACITY];
+    private static final int[] ids = new int[CAPACITY];
+    private static int next;
+    private static int size;
+
+    private static final AtomicInteger asyncIds = new AtomicInteger();
+
+    private Tracer() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Tracer.enabled = enabled;
+    }
+
+    public static void setSink(Sink sink) {
+        Tracer.sink = sink;
+    }
+
+    /**
+     * Starts a section on the calling thread and returns whether it was traced, to be passed
+     * to {@link #endSection}.
+     */
+    public static boolean beginSection(String name) {
+        if (!enabled) return false;
+        add(BEGIN, name, 0);
+        Sink current = sink;
+        if (current != null) current.beginSection(name);
+        return true;
+    }
+
+    /** Ends the innermost open section on the calling thread, if its begin was traced. */
+    public static void endSection(String name, boolean traced) {
+        if (!traced) return;
+        add(END, name, 0);
+        Sink current = sink;
+        if (current != null) current.endSection();
+    }
+
+    /**
+     * Starts a span that may end on another thread and returns its id, to be passed to
+     * {@link #endAsync}. Returns 0 while tracing is disabled.
+     */
+    public static int beginAsync(String name) {
+        if (!enabled) return 0;
+        int id = asyncIds.incrementAndGet();
+        add(ASYNC_BEGIN, name, id);
+        Sink current = sink;
+        if (current != null) current.beginAsync(name, id);
+        return id;
+    }
+
+    public static void endAsync(String name, int id) {
+        if (id == 0) return;
+        add(ASYNC_END, name, id);
+        Sink current = sink;
+        if (current != null) current.endAsync(name, id);
+    }
+
+    private static synchronized void add(char phase, String name, int id) {
+        timestamps[next] = System.nanoTime();
+        threadIds[next] = Thread.currentThread().getId();
+        phases[next] = phase;
+        names[next] = name;
+        ids[next] = id;
+        next = (next + 1) % CAPACITY;
+        if (size < CAPACITY) size++;
+    }
+
+    public static synchronized void clear() {
+        next = 0;
+        size = 0;
+        Arrays.fill(names, null);
+    }
+
+    /**
+     * Writes the buffered events, oldest first, in Chrome trace-event format. Sections
+     * cut in half by the ring buffer wrapping show up unterminated.
+     */
+    public static synchronized void writeJson(Writer out) throws IOException {
+        out.write("{\"traceEvents\":[\n");
+        int first = (next - size + CAPACITY) % CAPACITY;
+        for (int i = 0; i < size; i++) {
+            int index = (first + i) % CAPACITY;
+            char phase = phases[index];
+            out.write(i == 0 ? "{" : ",\n{");
+            out.write("\"name\":\"");
+            writeEscaped(out, names[index]);
+            out.write("\",\"ph\":\"");
+            out.write(phase);
+            out.write("\",\"ts\":");
+            out.write(Long.toString(timestamps[index] / 1_000));
+            out.write('.');
+            out.write(Long.toString(timestamps[index] % 1_000 / 100));
+            out.write(",\"pid\":1,\"tid\":");
+            out.write(Long.toString(threadIds[index]));
+            if (phase == ASYNC_BEGIN || phase == ASYNC_END) {
+                out.write(",\"cat\":\"async\",\"id\":");
+                out.write(Integer.toString(ids[index]));
+            }
+            out.write('}');
+        }
+        out.write("\n],\"displayTimeUnit\":\"ms\"}\n");
+    }
+
+    private static void writeEscaped(Writer out, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20) {
+                out.write(String.format("\\u%04x", (int) c));
+            } else {
+                out.write(c);
+            }
+        }
+    }
+}
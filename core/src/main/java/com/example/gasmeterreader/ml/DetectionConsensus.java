@@ -0,0 +1,40 @@
+package com.example.gasmeterreader.ml;
+
+import com.example.gasmeterreader.utils.StringsUtils;
+
+import java.util.HashMap;
+
+/**
+ * Votes over the readings decoded from consecutive frames and accepts one once it has
+ * been seen {@code threshold} times.
+ */
+public class DetectionConsensus {
+    public static final int DETECTION_THRESHOLD = 3;
+
+    private final HashMap<String, Integer> detectionCounter = new HashMap<>();
+    private final int threshold;
+
+    public DetectionConsensus(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /** Counts a frame's decoded reading and returns whether a reading is accepted. */
+    public boolean add(String dataResult) {
+        if (!dataResult.isEmpty()) {
+            StringsUtils.addString(dataResult, detectionCounter);
+        }
+        return isAccepted();
+    }
+
+    public boolean isAccepted() {
+        return StringsUtils.getMaxCount(detectionCounter) >= threshold;
+    }
+
+    public String getMostFrequent() {
+        return StringsUtils.getMostFrequentString(detectionCounter);
+    }
+
+    public void clear() {
+        detectionCounter.clear();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.gasmeterreader.ml
+
+/**
+ * Turns a raw YOLO output tensor of shape [1, numChannel, numElements] into boxes.
+ *
+ * Kept free of Android and TFLite types so it can be shared by every [InferenceBackend].
+ */
+class DetectionPostProcessor(
+    private val labels: List<String>,
+    private val numChannel: Int,
+    private val numElements: Int,
+) {
+
+    fun bestBox(array: FloatArray) : List<BoundingBox>? {
+
+        val boundingBoxes = mutableListOf<BoundingBox>()
+
+        for (c in 0 until numElements) {
+            var maxConf = CONFIDENCE_THRESHOLD
+            var maxIdx = -1
+            var j = 4
+            var arrayIdx = c + numElements * j
+            while (j < numChannel){
+                if (array[arrayIdx] > maxConf) {
+                    maxConf = array[arrayIdx]
+                    maxIdx = j - 4
+                }
+                j++
+                arrayIdx += numElements
+            }
+
+            if (maxConf > CONFIDENCE_THRESHOLD) {
+                val clsName = labels[maxIdx]
+                val cx = array[c] // 0
+                val cy = array[c + numElements] // 1
+                val w = array[c + numElements * 2]
+                val h = array[c + numElements * 3]
+                val x1 = cx - (w/2F)
+                val y1 = cy - (h/2F)
+                val x2 = cx + (w/2F)
+                val y2 = cy + (h/2F)
+                if (x1 < 0F || x1 > 1F) continue
+                if (y1 < 0F || y1 > 1F) continue
+                if (x2 < 0F || x2 > 1F) continue
+                if (y2 < 0F || y2 > 1F) continue
+
+                boundingBoxes.add(
+                    BoundingBox(
+                        x1 = x1, y1 = y1, x2 = x2, y2 = y2,
+                        cx = cx, cy = cy, w = w, h = h,
+                        cnf = maxConf, cls = maxIdx, clsName = clsName
+                    )
+                )
+            }
+        }
+
+        if (boundingBoxes.isEmpty()) return null
+        return applyNMS(boundingBoxes)
+    }
+
+    fun applyNMS(boxes: List<BoundingBox>) : MutableList<BoundingBox> {
+        val sortedBoxes = boxes.sortedByDescending { it.cnf }.toMutableList()
+        val selectedBoxes = mutableListOf<BoundingBox>()
+
+        while(sortedBoxes.isNotEmpty()) {
+            val first = sortedBoxes.first()
+            selectedBoxes.add(first)
+            sortedBoxes.remove(first)
+
+            val iterator = sortedBoxes.iterator()
+            while (iterator.hasNext()) {
+                val nextBox = iterator.next()
+                val iou = calculateIoU(first, nextBox)
+                if (iou >= IOU_THRESHOLD) {
+                    iterator.remove()
+                }
+            }
+        }
+
+        return selectedBoxes
+    }
+
+    companion object {
+        const val CONFIDENCE_THRESHOLD = 0.3F
+        const val IOU_THRESHOLD = 0.4F
+
+        @JvmStatic
+        fun calculateIoU(box1: BoundingBox, box2: BoundingBox): Float {
+            val x1 = maxOf(box1.x1, box2.x1)
+            val y1 = maxOf(box1.y1, box2.y1)
+            val x2 = minOf(box1.x2, box2.x2)
+            val y2 = minOf(box1.y2, box2.y2)
+            val intersectionArea = maxOf(0F, x2 - x1) * maxOf(0F, y2 - y1)
+            val box1Area = box1.w * box1.h
+            val box2Area = box2.w * box2.h
+            return intersectionArea / (box1Area + box2Area - intersectionArea)
+        }
+    }
+}
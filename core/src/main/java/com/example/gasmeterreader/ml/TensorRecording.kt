@@ -0,0 +1,214 @@
+package com.example.gasmeterreader.ml
+
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.Closeable
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.EOFException
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+
+/**
+ * Model output tensors captured frame by frame, replayed by [ReplayBackend].
+ *
+ * File layout (big endian): the magic and a version byte, then a sequence of records
+ * until end of file. Each record starts with a tag:
+ *  - [TAG_STREAM]: stream id, model name, numChannel, numElements
+ *  - [TAG_FRAME]: capture timestamp in nanoseconds, starts a new frame
+ *  - [TAG_OUTPUT]: stream id, column count, then for every column its element index
+ *    followed by numChannel floats
+ *
+ * Only columns with a class score above [DetectionPostProcessor.CONFIDENCE_THRESHOLD] are
+ * stored. The post-processor ignores every other column, so replaying the sparse tensor
+ * gives exactly the boxes the dense one did. A model that did not run on a frame has no
+ * output record for it.
+ */
+class TensorRecording private constructor(
+    private val streams: List<Stream>,
+    private val frames: List<Frame>,
+) {
+
+    class Stream(val name: String, val numChannel: Int, val numElements: Int)
+
+    class Frame(val timestampNanos: Long) {
+        internal val outputs = HashMap<Int, SparseOutput>()
+    }
+
+    internal class SparseOutput(val elements: IntArray, val columns: FloatArray)
+
+    /** Index of the frame the replay backends currently serve. */
+    var position = -1
+        private set
+
+    val frameCount: Int
+        get() = frames.size
+
+    fun advance(): Boolean {
+        if (position + 1 >= frames.size) return false
+        position++
+        return true
+    }
+
+    fun rewind() {
+        position = -1
+    }
+
+    fun timestampNanos(frameIndex: Int): Long = frames[frameIndex].timestampNanos
+
+    fun stream(name: String): Stream? = streams.firstOrNull { it.name == name }
+
+    /**
+     * Writes the current frame's output for [name] into [dense], zeroing every column that
+     * was not stored. Returns false if the model did not run on this frame.
+     */
+    fun fillOutput(name: String, dense: FloatArray): Boolean {
+        if (position < 0) return false
+        val streamId = streams.indexOfFirst { it.name == name }
+        if (streamId < 0) return false
+        val output = frames[position].outputs[streamId] ?: return false
+
+        val stream = streams[streamId]
+        dense.fill(0F)
+        for (i in output.elements.indices) {
+            val element = output.elements[i]
+            for (channel in 0 until stream.numChannel) {
+                dense[element + stream.numElements * channel] =
+                    output.columns[i * stream.numChannel + channel]
+            }
+        }
+        return true
+    }
+
+    /**
+     * Appends frames to a recording. Write failures stop the recording instead of
+     * reaching the detection thread; check [error] after [close].
+     */
+    class Writer(output: OutputStream) : Closeable {
+        private val out = DataOutputStream(BufferedOutputStream(output))
+        private val streamIds = HashMap<String, Int>()
+        private var columnBuffer = IntArray(0)
+
+        var error: IOException? = null
+            private set
+
+        init {
+            write {
+                out.writeInt(MAGIC)
+                out.writeByte(VERSION)
+            }
+        }
+
+        @Synchronized
+        fun beginFrame(timestampNanos: Long) = write {
+            out.writeByte(TAG_FRAME)
+            out.writeLong(timestampNanos)
+        }
+
+        @Synchronized
+        fun record(name: String, numChannel: Int, numElements: Int, output: FloatArray) = write {
+            val streamId = streamIds.getOrPut(name) {
+                val id = streamIds.size
+                out.writeByte(TAG_STREAM)
+                out.writeByte(id)
+                out.writeUTF(name)
+                out.writeInt(numChannel)
+                out.writeInt(numElements)
+                id
+            }
+
+            if (columnBuffer.size < numElements) columnBuffer = IntArray(numElements)
+            var count = 0
+            for (c in 0 until numElements) {
+                var j = 4
+                while (j < numChannel) {
+                    if (output[c + numElements * j] > DetectionPostProcessor.CONFIDENCE_THRESHOLD) {
+                        columnBuffer[count++] = c
+                        break
+                    }
+                    j++
+                }
+            }
+
+            out.writeByte(TAG_OUTPUT)
+            out.writeByte(streamId)
+            out.writeInt(count)
+            for (i in 0 until count) {
+                val c = columnBuffer[i]
+                out.writeInt(c)
+                for (channel in 0 until numChannel) {
+                    out.writeFloat(output[c + numElements * channel])
+                }
+            }
+        }
+
+        @Synchronized
+        override fun close() {
+            write { out.close() }
+        }
+
+        private inline fun write(block: () -> Unit) {
+            if (error != null) return
+            try {
+                block()
+            } catch (e: IOException) {
+                error = e
+            }
+        }
+    }
+
+    companion object {
+        private const val MAGIC = 0x474D5452 // "GMTR"
+        private const val VERSION = 1
+        private const val TAG_STREAM = 0
+        private const val TAG_FRAME = 1
+        private const val TAG_OUTPUT = 2
+
+        @JvmStatic
+        @Throws(IOException::class)
+        fun read(input: InputStream): TensorRecording {
+            val data = DataInputStream(BufferedInputStream(input))
+            if (data.readInt() != MAGIC) throw IOException("Not a tensor recording")
+            val version = data.readUnsignedByte()
+            if (version != VERSION) throw IOException("Unsupported recording version $version")
+
+            val streams = mutableListOf<Stream>()
+            val frames = mutableListOf<Frame>()
+            while (true) {
+                val tag = try {
+                    data.readUnsignedByte()
+                } catch (e: EOFException) {
+                    break
+                }
+                when (tag) {
+                    TAG_STREAM -> {
+                        val id = data.readUnsignedByte()
+                        if (id != streams.size) throw IOException("Stream $id defined out of order")
+                        streams.add(Stream(data.readUTF(), data.readInt(), data.readInt()))
+                    }
+                    TAG_FRAME -> frames.add(Frame(data.readLong()))
+                    TAG_OUTPUT -> {
+                        val streamId = data.readUnsignedByte()
+                        val stream = streams.getOrNull(streamId)
+                            ?: throw IOException("Output for undefined stream $streamId")
+                        val frame = frames.lastOrNull()
+                            ?: throw IOException("Output recorded before the first frame")
+                        val count = data.readInt()
+                        val elements = IntArray(count)
+                        val columns = FloatArray(count * stream.numChannel)
+                        for (i in 0 until count) {
+                            elements[i] = data.readInt()
+                            for (channel in 0 until stream.numChannel) {
+                                columns[i * stream.numChannel + channel] = data.readFloat()
+                            }
+                        }
+                        frame.outputs[streamId] = SparseOutput(elements, columns)
+                    }
+                    else -> throw IOException("Unknown record tag $tag")
+                }
+            }
+            return TensorRecording(streams, frames)
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.gasmeterreader.utils;
+
+import androidx.room.TypeConverter;
+
+import com.example.gasmeterreader.entities.Read;
+import com.example.gasmeterreader.metrics.Tracer;
+import com.google.gson.JsonSyntaxException;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The JSON read-list blob of schema version 1, when a building's reads were one column.
+ * Reads now have their own table, so this only decodes old rows during the migration.
+ */
+public class Converters {
+    @TypeConverter
+    public static String fromReadList(List<Read> readList) {
+        if (readList == null) {
+            return null;
+        }
+        boolean traced = Tracer.beginSection("Converters.fromReadList");
+        try {
+            return JsonAdapters.READ_LIST.toJson(readList);
+        } finally {
+            Tracer.endSection("Converters.fromReadList", traced);
+        }
+    }
+
+    @TypeConverter
+    public static List<Read> toReadList(String readListString) {
+        if (readListString == null) {
+            return null;
+        }
+        // Closed on a parse failure too, or the rest of the trace would nest inside it
+        boolean traced = Tracer.beginSection("Converters.toReadList");
+        try {
+            return JsonAdapters.READ_LIST.fromJson(readListString);
+        } catch (IOException e) {
+            throw new JsonSyntaxException(e);
+        } finally {
+            Tracer.endSection("Converters.toReadList", traced);
+        }
+    }
+}
\ No newline at end of file
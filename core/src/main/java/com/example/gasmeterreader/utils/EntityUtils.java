@@ -0,0 +1,16 @@
+package com.example.gasmeterreader.utils;
+
+import com.example.gasmeterreader.entities.Read;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class EntityUtils {
+    public static List<Read> sortReadsByOrder(List<Read> reads) {
+        List<Read> sortedReads = new ArrayList<>(reads);
+        sortedReads.sort(Comparator.comparingInt(Read::getOrder));
+        return sortedReads;
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.example.gasmeterreader.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns what a technician types into an FTS4 query, and says how its hits are ranked. FTS4
+ * has no ranking of its own; the search scores each hit in SQL by which columns each word
+ * hits, with {@link #READ_WEIGHTS}, so only the best hits ever leave the database.
+ */
+public final class FtsSearch {
+    /** The columns of {@code read_fts}, in declaration order. */
+    public static final String[] READ_COLUMNS = {"meter_id", "user_name", "street", "house_number", "apartment", "city"};
+    /**
+     * Per column of {@link #READ_COLUMNS}: what a word hitting it adds to a hit's score. A
+     * serial or a name says more than a street or a city.
+     */
+    public static final double[] READ_WEIGHTS = {10, 6, 3, 1.5, 1, 0.5};
+
+    private FtsSearch() {
+    }
+
+    /**
+     * Every word of {@code text} as a prefix term, all of them required, so a half-typed
+     * serial or name already matches. Syntax characters are dropped. Empty if no word is left.
+     */
+    public static String prefixQuery(String text) {
+        return String.join(" ", prefixTerms(text));
+    }
+
+    /** The terms of {@link #prefixQuery}, one per word. */
+    public static List<String> prefixTerms(String text) {
+        List<String> terms = new ArrayList<>();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) i++;
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) i++;
+            if (i > start) {
+                terms.add(text.substring(start, i) + '*');
+            }
+        }
+        return terms;
+    }
+}
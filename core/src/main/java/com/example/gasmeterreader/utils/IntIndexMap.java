@@ -0,0 +1,75 @@
+package com.example.gasmeterreader.utils;
+
+import java.util.Arrays;
+
+/**
+ * Maps int keys to non-negative int indexes with open addressing, without boxing either.
+ * Used to find an entry in a list by an int id: a read's position by its {@code user_id}
+ * in {@link ReadNavigator}, a new building by its {@code center} in {@link ReadMerger}.
+ */
+final class IntIndexMap {
+    static final int MISSING = -1;
+
+    private int[] keys;
+    private int[] indexes;
+    private int size;
+
+    IntIndexMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        indexes = new int[capacity];
+        Arrays.fill(indexes, MISSING);
+    }
+
+    int get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            if (indexes[slot] == MISSING || keys[slot] == key) {
+                return indexes[slot];
+            }
+        }
+    }
+
+    void put(int key, int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("index must not be negative: " + index);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (indexes[slot] != MISSING && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (indexes[slot] == MISSING) {
+            size++;
+        }
+        keys[slot] = key;
+        indexes[slot] = index;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldIndexes = indexes;
+        keys = new int[oldKeys.length * 2];
+        indexes = new int[oldKeys.length * 2];
+        Arrays.fill(indexes, MISSING);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldIndexes[i] != MISSING) {
+                put(oldKeys[i], oldIndexes[i]);
+            }
+        }
+    }
+
+    // User ids and centers run consecutively, so spread them before masking
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.gasmeterreader.utils;
+
+import com.example.gasmeterreader.entities.Read;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+
+import java.util.List;
+
+/**
+ * The one Gson instance for reads, shared by the network layer and the database code, with
+ * the hand-written {@link ReadTypeAdapter} registered and the list adapter looked up once.
+ */
+public final class JsonAdapters {
+    public static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(Read.class, new ReadTypeAdapter())
+            .create();
+    public static final TypeAdapter<Read> READ = GSON.getAdapter(Read.class);
+    public static final TypeAdapter<List<Read>> READ_LIST = GSON.getAdapter(new TypeToken<List<Read>>() {});
+
+    private JsonAdapters() {
+    }
+}
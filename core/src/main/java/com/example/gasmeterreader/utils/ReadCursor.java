@@ -0,0 +1,60 @@
+package com.example.gasmeterreader.utils;
+
+import com.example.gasmeterreader.entities.Read;
+
+/**
+ * One screen's position in a building's {@link ReadNavigator}. The navigator is shared with
+ * the other screens, the cursor is not, so moving on one screen never moves another.
+ *
+ * <p>Not thread safe; the screens use it from the main thread.
+ */
+public class ReadCursor {
+    private final ReadNavigator navigator;
+    private int current;
+
+    /** Starts at the first read, or at -1 if the building has none. */
+    public ReadCursor(ReadNavigator navigator) {
+        this.navigator = navigator;
+        current = navigator.size() > 0 ? 0 : -1;
+    }
+
+    public ReadNavigator getNavigator() {
+        return navigator;
+    }
+
+    /** The current position, or -1 if the building has no reads. */
+    public int getCurrentIndex() {
+        return current;
+    }
+
+    public Read getCurrent() {
+        return current != -1 ? navigator.get(current) : null;
+    }
+
+    public Read moveTo(int position) {
+        if (position < 0 || position >= navigator.size()) {
+            throw new IndexOutOfBoundsException("position " + position + " of " + navigator.size());
+        }
+        current = position;
+        return navigator.get(position);
+    }
+
+    /** Moves to {@code read}'s position; returns it, or -1 without moving if it is not here. */
+    public int moveTo(Read read) {
+        int position = navigator.indexOf(read);
+        if (position != -1) {
+            current = position;
+        }
+        return position;
+    }
+
+    /** The read after the current one, or null at the end. */
+    public Read getNext() {
+        return current != -1 && current < navigator.size() - 1 ? navigator.get(current + 1) : null;
+    }
+
+    /** The read before the current one, or null at the start. */
+    public Read getPrevious() {
+        return current > 0 ? navigator.get(current - 1) : null;
+    }
+}
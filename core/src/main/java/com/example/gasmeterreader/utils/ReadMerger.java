@@ -0,0 +1,144 @@
+package com.example.gasmeterreader.utils;
+
+import com.example.gasmeterreader.entities.Building;
+import com.example.gasmeterreader.entities.Read;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Merges reads downloaded from the server into the local ones. Server fields win, except
+ * that a reading entered on the device and not yet uploaded is never overwritten.
+ */
+public class ReadMerger {
+
+    public static class Result {
+        private final List<Read> upserts;
+        private final List<Building> newBuildings;
+        private final Set<Integer> touchedCenters;
+        private final int unchanged;
+        private final int keptLocal;
+
+        Result(List<Read> upserts, List<Building> newBuildings, Set<Integer> touchedCenters,
+               int unchanged, int keptLocal) {
+            this.upserts = upserts;
+            this.newBuildings = newBuildings;
+            this.touchedCenters = touchedCenters;
+            this.unchanged = unchanged;
+            this.keptLocal = keptLocal;
+        }
+
+        /** Reads to insert or replace, new or changed ones only. */
+        public List<Read> getUpserts() {
+            return upserts;
+        }
+
+        /** Buildings for centers that did not exist locally. */
+        public List<Building> getNewBuildings() {
+            return newBuildings;
+        }
+
+        /** Centers whose reads changed, so their completion needs recomputing. */
+        public Set<Integer> getTouchedCenters() {
+            return touchedCenters;
+        }
+
+        public int getUnchanged() {
+            return unchanged;
+        }
+
+        /** Reads whose unsynced local value survived the merge. */
+        public int getKeptLocal() {
+            return keptLocal;
+        }
+    }
+
+    /**
+     * @param remote reads from the server, the full route or only the changed ones
+     * @param local the local rows for at least every user_id in {@code remote}
+     * @param knownCenters centers that already have a building row
+     */
+    public static Result merge(Collection<Read> remote, Map<Integer, Read> local, Set<Integer> knownCenters) {
+        List<Read> upserts = new ArrayList<>();
+        // In the order their centers were first seen; found by center without boxing it
+        List<Building> newBuildings = new ArrayList<>();
+        IntIndexMap newBuildingIndex = new IntIndexMap(16);
+        Set<Integer> touchedCenters = new HashSet<>();
+        int unchanged = 0;
+        int keptLocal = 0;
+
+        for (Read serverRead : remote) {
+            if (serverRead.getUser_status() != null) {
+                serverRead.setCurrent_read(serverRead.getLast_read());
+            }
+            Read localRead = local.get(serverRead.getUser_id());
+            Read merged;
+            if (localRead == null) {
+                merged = serverRead;
+                merged.setDirty(false);
+            } else if (localRead.isDirty()) {
+                merged = copyWithCurrentRead(serverRead, localRead.getCurrent_read());
+                merged.setRead(localRead.isRead());
+                merged.setDirty(true);
+                keptLocal++;
+            } else {
+                merged = serverRead;
+                // The read flag is local, it only resets when the server changes the value
+                merged.setRead(serverRead.getCurrent_read() == localRead.getCurrent_read()
+                        ? localRead.isRead() : serverRead.isRead());
+                merged.setDirty(false);
+            }
+
+            // The edit counter is local, the server never moves it
+            merged.setSync_version(localRead != null ? localRead.getSync_version() : 0);
+
+            if (localRead != null && sameContent(merged, localRead)) {
+                unchanged++;
+                continue;
+            }
+            upserts.add(merged);
+            touchedCenters.add(merged.getCenter());
+            if (localRead != null) {
+                touchedCenters.add(localRead.getCenter());
+            }
+            int center = merged.getCenter();
+            if (newBuildingIndex.get(center) == IntIndexMap.MISSING && !knownCenters.contains(center)) {
+                newBuildingIndex.put(center, newBuildings.size());
+                newBuildings.add(new Building(merged.getStreet(), merged.getCity(),
+                        merged.getHouse_number(), center));
+            }
+        }
+        return new Result(upserts, newBuildings, touchedCenters, unchanged, keptLocal);
+    }
+
+    private static Read copyWithCurrentRead(Read read, double currentRead) {
+        return new Read(read.getUser_id(), read.getCity(), read.getStreet(), read.getHouse_number(),
+                read.getEntry(), read.getOrder(), read.getUser_name(), read.getUser_status(),
+                read.getApartment(), read.getMeter_id(), read.getLast_read(), currentRead,
+                read.getCenter(), read.getComment());
+    }
+
+    static boolean sameContent(Read a, Read b) {
+        return a.getUser_id() == b.getUser_id()
+                && Objects.equals(a.getCity(), b.getCity())
+                && Objects.equals(a.getStreet(), b.getStreet())
+                && a.getHouse_number() == b.getHouse_number()
+                && Objects.equals(a.getEntry(), b.getEntry())
+                && a.getOrder() == b.getOrder()
+                && Objects.equals(a.getUser_name(), b.getUser_name())
+                && Objects.equals(a.getUser_status(), b.getUser_status())
+                && a.getApartment() == b.getApartment()
+                && a.getMeter_id() == b.getMeter_id()
+                && a.getLast_read() == b.getLast_read()
+                && a.getCurrent_read() == b.getCurrent_read()
+                && a.getCenter() == b.getCenter()
+                && Objects.equals(a.getComment(), b.getComment())
+                && a.isRead() == b.isRead()
+                && a.isDirty() == b.isDirty();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.gasmeterreader.utils;
+
+import com.example.gasmeterreader.entities.Read;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A building's reads in walking order, with the reads still to do and a count of the done
+ * ones, so moving around the building never scans its list. A read is done once it has a
+ * current value, as in {@link com.example.gasmeterreader.entities.Building#checkCompleted()}.
+ * Reads are found by user id, so one from another copy of the building still finds its position.
+ *
+ * <p>Shared by every screen holding the building, so it has no position of its own; each
+ * screen walks it with its own {@link ReadCursor}. Not thread safe; the screens use it from
+ * the main thread.
+ */
+public class ReadNavigator {
+    private final List<Read> reads;
+    private final IntIndexMap positions;
+    // Set bits are the positions still to read; finding the next one skips 64 done reads a word
+    private final BitSet unread;
+    private int doneCount;
+
+    public ReadNavigator(List<Read> reads) {
+        this.reads = Collections.unmodifiableList(EntityUtils.sortReadsByOrder(reads));
+        int size = this.reads.size();
+        positions = new IntIndexMap(size);
+        unread = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            Read read = this.reads.get(i);
+            positions.put(read.getUser_id(), i);
+            if (isDone(read)) {
+                doneCount++;
+            } else {
+                unread.set(i);
+            }
+        }
+    }
+
+    /** The reads in walking order; the same list for the navigator's lifetime. */
+    public List<Read> getReads() {
+        return reads;
+    }
+
+    public int size() {
+        return reads.size();
+    }
+
+    public Read get(int position) {
+        return reads.get(position);
+    }
+
+    /** The position of the read with {@code userId}, or -1 if it is not in this building. */
+    public int indexOf(int userId) {
+        return positions.get(userId);
+    }
+
+    public int indexOf(Read read) {
+        return read != null ? indexOf(read.getUser_id()) : -1;
+    }
+
+    /** The first position at or after {@code from} still to read, or -1 if there is none. */
+    public int nextUnread(int from) {
+        return from < reads.size() ? unread.nextSetBit(Math.max(from, 0)) : -1;
+    }
+
+    public int firstUnread() {
+        return nextUnread(0);
+    }
+
+    /** Call after the current value of {@code read}, one of {@link #getReads()}, changed. */
+    public void update(Read read) {
+        int position = indexOf(read);
+        if (position == -1) return;
+        boolean done = isDone(reads.get(position));
+        if (done == !unread.get(position)) return;
+        unread.set(position, !done);
+        doneCount += done ? 1 : -1;
+    }
+
+    public int getDoneCount() {
+        return doneCount;
+    }
+
+    public int getUnreadCount() {
+        return reads.size() - doneCount;
+    }
+
+    public boolean isComplete() {
+        return doneCount == reads.size();
+    }
+
+    private static boolean isDone(Read read) {
+        return read.getCurrent_read() != 0;
+    }
+}
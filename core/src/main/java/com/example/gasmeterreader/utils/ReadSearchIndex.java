@@ -0,0 +1,191 @@
+package com.example.gasmeterreader.utils;
+
+import com.example.gasmeterreader.entities.Read;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Substring search over the apartment number, meter number and tenant name of a building's
+ * reads, built once when the list loads. Each read's fields are precomputed into one string,
+ * and a trigram index narrows long queries to a few candidates before they are checked.
+ * A query that extends the previous one only rechecks the previous matches, so typing a
+ * number digit by digit costs less with every key.
+ *
+ * <p>Not thread safe: the matches live in buffers reused by the next {@link #search}. Callers
+ * on the same thread may share one, as the screens do through
+ * {@link com.example.gasmeterreader.entities.Building#getSearchIndex()}: the previous matches
+ * are only reused for a query that contains the previous one, whoever searched it.
+ */
+public class ReadSearchIndex {
+    // Between fields, so a match never spans two of them
+    private static final char SEPARATOR = '\u0000';
+    private static final int GRAM = 3;
+
+    private final String[] texts;
+    private final Map<Long, int[]> trigrams;
+    private int[] matches;
+    private int[] scratch;
+    private int matchCount;
+    private String lastQuery = "";
+
+    public ReadSearchIndex(List<Read> reads) {
+        int size = reads.size();
+        texts = new String[size];
+        Map<Long, Postings> building = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Read read = reads.get(i);
+            String name = read.getUser_name() != null ? read.getUser_name().toLowerCase(Locale.ROOT) : "";
+            String text = Integer.toString(read.getApartment()) + SEPARATOR
+                    + read.getMeter_id() + SEPARATOR + name;
+            texts[i] = text;
+            for (int start = 0; start + GRAM <= text.length(); start++) {
+                long key = trigram(text, start);
+                if (key < 0) continue;
+                Postings postings = building.get(key);
+                if (postings == null) {
+                    postings = new Postings();
+                    building.put(key, postings);
+                }
+                postings.add(i);
+            }
+        }
+        trigrams = new HashMap<>(building.size() * 4 / 3 + 1);
+        for (Map.Entry<Long, Postings> entry : building.entrySet()) {
+            trigrams.put(entry.getKey(), entry.getValue().toArray());
+        }
+        matches = new int[size];
+        scratch = new int[size];
+        selectAll();
+    }
+
+    public int size() {
+        return texts.length;
+    }
+
+    /**
+     * Finds the reads whose apartment, meter number or tenant name contains {@code query},
+     * ignoring case; an empty query matches every read.
+     *
+     * @return the number of matches, read with {@link #getMatch}
+     */
+    public int search(String query) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        if (needle.isEmpty()) {
+            selectAll();
+            lastQuery = needle;
+            return matchCount;
+        }
+        if (needle.indexOf(SEPARATOR) >= 0) {
+            return clear(needle);
+        }
+
+        int[] candidates;
+        int candidateCount;
+        if (!lastQuery.isEmpty() && needle.contains(lastQuery)) {
+            // Whatever matches the longer query matched the shorter one
+            candidates = matches;
+            candidateCount = matchCount;
+        } else if (needle.length() >= GRAM) {
+            candidates = rarestPostings(needle);
+            if (candidates == null) {
+                return clear(needle);
+            }
+            candidateCount = candidates.length;
+        } else {
+            candidates = null;
+            candidateCount = texts.length;
+        }
+
+        int count = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            int position = candidates != null ? candidates[i] : i;
+            if (texts[position].contains(needle)) {
+                scratch[count++] = position;
+            }
+        }
+        int[] previous = matches;
+        matches = scratch;
+        scratch = previous;
+        matchCount = count;
+        lastQuery = needle;
+        return count;
+    }
+
+    public int getMatchCount() {
+        return matchCount;
+    }
+
+    /** The position in the indexed list of the {@code i}th match, in list order. */
+    public int getMatch(int i) {
+        if (i < 0 || i >= matchCount) {
+            throw new IndexOutOfBoundsException("match " + i + " of " + matchCount);
+        }
+        return matches[i];
+    }
+
+    /** The shortest posting list among the query's trigrams, or null if one has none. */
+    private int[] rarestPostings(String needle) {
+        int[] rarest = null;
+        for (int start = 0; start + GRAM <= needle.length(); start++) {
+            int[] postings = trigrams.get(trigram(needle, start));
+            if (postings == null) {
+                return null;
+            }
+            if (rarest == null || postings.length < rarest.length) {
+                rarest = postings;
+            }
+        }
+        return rarest;
+    }
+
+    private void selectAll() {
+        for (int i = 0; i < texts.length; i++) {
+            matches[i] = i;
+        }
+        matchCount = texts.length;
+    }
+
+    private int clear(String needle) {
+        matchCount = 0;
+        lastQuery = needle;
+        return 0;
+    }
+
+    /** The three chars at {@code start} packed into a key, or -1 if one is a separator. */
+    private static long trigram(String text, int start) {
+        long key = 0;
+        for (int i = start; i < start + GRAM; i++) {
+            char c = text.charAt(i);
+            if (c == SEPARATOR) {
+                return -1;
+            }
+            key = (key << 16) | c;
+        }
+        return key;
+    }
+
+    /** Read positions in ascending order, each added at most once. */
+    private static final class Postings {
+        private int[] positions = new int[4];
+        private int size;
+
+        void add(int position) {
+            if (size > 0 && positions[size - 1] == position) return;
+            if (size == positions.length) {
+                int[] grown = new int[size * 2];
+                System.arraycopy(positions, 0, grown, 0, size);
+                positions = grown;
+            }
+            positions[size++] = position;
+        }
+
+        int[] toArray() {
+            int[] trimmed = new int[size];
+            System.arraycopy(positions, 0, trimmed, 0, size);
+            return trimmed;
+        }
+    }
+}
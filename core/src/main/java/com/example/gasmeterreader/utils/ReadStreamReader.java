@@ -0,0 +1,43 @@
+package com.example.gasmeterreader.utils;
+
+import com.example.gasmeterreader.entities.Read;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads a JSON array of reads element by element and hands them on in batches, so only
+ * one batch is ever held in memory however long the route is.
+ */
+public class ReadStreamReader {
+    /**
+     * @param batchConsumer receives each batch, a new list every time; the last one may be short
+     * @return the number of reads read
+     */
+    public static int readBatches(Reader in, int batchSize, Consumer<List<Read>> batchConsumer) throws IOException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        int count = 0;
+        List<Read> batch = new ArrayList<>(batchSize);
+        JsonReader reader = new JsonReader(in);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            batch.add(JsonAdapters.READ.read(reader));
+            count++;
+            if (batch.size() == batchSize) {
+                batchConsumer.accept(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        reader.endArray();
+        if (!batch.isEmpty()) {
+            batchConsumer.accept(batch);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.gasmeterreader.utils;
+
+import com.example.gasmeterreader.entities.Read;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes {@link Read} field by field, without reflection. The output matches
+ * Gson's reflective adapter byte for byte: same names, declaration order, nulls omitted.
+ * Unknown names are skipped and missing ones keep their defaults, as with reflection.
+ *
+ * <p>{@code dirty} and {@code sync_version} are the device's upload bookkeeping and are
+ * neither written nor read: this is the server's format, and what the server sends never
+ * decides what the device still has to upload.
+ */
+public class ReadTypeAdapter extends TypeAdapter<Read> {
+
+    @Override
+    public void write(JsonWriter out, Read read) throws IOException {
+        if (read == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("user_id").value(read.getUser_id());
+        writeString(out, "city", read.getCity());
+        writeString(out, "street", read.getStreet());
+        out.name("house_number").value(read.getHouse_number());
+        writeString(out, "entry", read.getEntry());
+        out.name("order").value(read.getOrder());
+        writeString(out, "user_name", read.getUser_name());
+        writeString(out, "user_status", read.getUser_status());
+        out.name("apartment").value(read.getApartment());
+        out.name("meter_id").value(read.getMeter_id());
+        out.name("last_read").value(read.getLast_read());
+        out.name("current_read").value(read.getCurrent_read());
+        out.name("center").value(read.getCenter());
+        writeString(out, "comment", read.getComment());
+        out.name("isRead").value(read.isRead());
+        out.endObject();
+    }
+
+    @Override
+    public Read read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        int userId = 0;
+        String city = null;
+        String street = null;
+        int houseNumber = 0;
+        String entry = null;
+        int order = 0;
+        String userName = null;
+        String userStatus = null;
+        int apartment = 0;
+        int meterId = 0;
+        double lastRead = 0;
+        double currentRead = 0;
+        int center = 0;
+        String comment = null;
+        boolean isRead = false;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                // Reflection leaves the default in place for an explicit null
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "user_id": userId = in.nextInt(); break;
+                case "city": city = readString(in); break;
+                case "street": street = readString(in); break;
+                case "house_number": houseNumber = in.nextInt(); break;
+                case "entry": entry = readString(in); break;
+                case "order": order = in.nextInt(); break;
+                case "user_name": userName = readString(in); break;
+                case "user_status": userStatus = readString(in); break;
+                case "apartment": apartment = in.nextInt(); break;
+                case "meter_id": meterId = in.nextInt(); break;
+                case "last_read": lastRead = in.nextDouble(); break;
+                case "current_read": currentRead = in.nextDouble(); break;
+                case "center": center = in.nextInt(); break;
+                case "comment": comment = readString(in); break;
+                case "isRead": isRead = readBoolean(in); break;
+                default: in.skipValue(); break;
+            }
+        }
+        in.endObject();
+
+        Read read = new Read(userId, city, street, houseNumber, entry, order, userName, userStatus,
+                apartment, meterId, lastRead, currentRead, center, comment);
+        read.setRead(isRead);
+        return read;
+    }
+
+    private static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    // Same leniency as Gson's built-in String and boolean adapters
+    private static String readString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+
+    private static boolean readBoolean(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.STRING) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+        return in.nextBoolean();
+    }
+}
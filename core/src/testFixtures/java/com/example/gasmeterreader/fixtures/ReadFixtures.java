@@ -0,0 +1,102 @@
+package com.example.gasmeterreader.fixtures;
+
+import com.example.gasmeterreader.entities.Building;
+import com.example.gasmeterreader.entities.Read;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/** Reads, buildings and routes for the tests and benchmarks, all deterministic. */
+public final class ReadFixtures {
+    public static final int FIRST_USER_ID = 100_000;
+    /** Apartments per building in {@link #route(int)}. */
+    public static final int BUILDING_SIZE = 40;
+
+    private static final String CITY = "חיפה";
+    private static final String STREET = "הרצל";
+    private static final String[] CITIES = {CITY, "קריית ביאליק", "נשר"};
+    private static final String[] STREETS = {STREET, "בן גוריון", "ויצמן", "הנביאים", "העצמאות", "מוריה"};
+
+    private ReadFixtures() {
+    }
+
+    /** A read with everything but the values a test cares about filled in. */
+    public static Read read(int userId, String city, String street, int houseNumber, int apartment,
+                            String userName, int meterId, double lastRead, double currentRead, int center) {
+        return new Read(userId, city, street, houseNumber, "א", apartment, userName, null, apartment,
+                meterId, lastRead, currentRead, center, null);
+    }
+
+    /** Apartment {@code order + 1} of building {@code center}. */
+    public static Read read(int userId, int center, int order, double currentRead) {
+        return read(userId, CITY, STREET, 1 + center % 120, order + 1, "דייר " + userId,
+                2_000_000 + userId, 1000 + order * 0.25, currentRead, center);
+    }
+
+    /** {@code count} unread reads of building {@code center}, in order, user ids from {@code firstUserId}. */
+    public static List<Read> reads(int center, int firstUserId, int count) {
+        List<Read> reads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            reads.add(read(firstUserId + i, center, i, 0));
+        }
+        return reads;
+    }
+
+    public static Building building(int center, int firstUserId, int count) {
+        Building building = new Building(STREET, CITY, 1 + center % 120, center);
+        for (Read read : reads(center, firstUserId, count)) {
+            building.addRead(read);
+        }
+        return building;
+    }
+
+    /**
+     * {@code count} unread reads in buildings of {@link #BUILDING_SIZE} from center 1000, user
+     * ids from {@link #FIRST_USER_ID}: a route of identical buildings.
+     */
+    public static List<Read> route(int count) {
+        List<Read> reads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            reads.add(read(FIRST_USER_ID + i, 1000 + i / BUILDING_SIZE, i % BUILDING_SIZE, 0));
+        }
+        return reads;
+    }
+
+    /**
+     * A route of {@code count} reads spread over buildings of 10 to 70 apartments, in the
+     * order the server sends them: grouped by building but not sorted by order. One read in
+     * twenty has a status, which completes it on sync.
+     */
+    public static List<Read> route(int count, long seed) {
+        List<Read> reads = new ArrayList<>(count);
+        forEachRouteRead(count, seed, reads::add);
+        return reads;
+    }
+
+    /** {@link #route(int, long)} one read at a time, for servers that write it as they go. */
+    public static void forEachRouteRead(int count, long seed, Consumer<Read> consumer) {
+        Random random = new Random(seed);
+        int center = 1000;
+        int apartmentsLeft = 0;
+        String city = CITIES[0];
+        String street = STREETS[0];
+        int houseNumber = 1;
+        for (int i = 0; i < count; i++) {
+            if (apartmentsLeft == 0) {
+                center++;
+                apartmentsLeft = 10 + random.nextInt(60);
+                city = CITIES[random.nextInt(CITIES.length)];
+                street = STREETS[random.nextInt(STREETS.length)];
+                houseNumber = 1 + random.nextInt(120);
+            }
+            apartmentsLeft--;
+            double lastRead = random.nextInt(900000) / 100.0;
+            String status = random.nextInt(20) == 0 ? "סגור" : null;
+            consumer.accept(new Read(FIRST_USER_ID + i, city, street, houseNumber, "א", random.nextInt(200),
+                    "דייר " + i, status, 1 + random.nextInt(80), 2000000 + random.nextInt(9000000),
+                    lastRead, 0, center, null));
+        }
+    }
+}